@@ -1,5 +1,6 @@
 package okuke;
 
+import java.util.Locale;
 import java.util.Objects;
 
 import okuke.command.Command;
@@ -19,6 +20,16 @@ public final class OKuke {
             "Invalid index or format. Please check your command.";
     private static final String MSG_UNEXPECTED_ERROR_PREFIX = "[Error] ";
 
+    /**
+     * In-memory task representation: {@code -Dokuke.task.backing=tree} suits heavy
+     * deletion, {@code columnar} very large lists, {@code persistent} background saves
+     * and undo, which it alone enables. An unknown value is reported and {@code array} used.
+     */
+    private static final TaskList.Backing BACKING = parseBacking(System.getProperty("okuke.task.backing", "array"));
+
+    /** Estimated memory that undo versions may hold: {@code -Dokuke.undo.budgetBytes}, 0 to disable. */
+    private static final long UNDO_BUDGET_BYTES = Long.getLong("okuke.undo.budgetBytes", 32L << 20);
+
     private final Storage storage;
     private final Ui ui;
     private TaskList tasks;
@@ -31,18 +42,31 @@ public final class OKuke {
         this.ui = new Ui();
         this.storage = new Storage(); // your existing self-contained path (./src/data/Okuke.txt)
         this.tasks = loadTasksOrEmpty();
+        if (UNDO_BUDGET_BYTES > 0 && tasks.hasCheapSnapshot()) {
+            // Other backings would copy the whole list after every command.
+            tasks.enableUndo(UNDO_BUDGET_BYTES);
+        }
+    }
+
+    private static TaskList.Backing parseBacking(String raw) {
+        try {
+            return TaskList.Backing.valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("[okuke.OKuke] Unknown okuke.task.backing '" + raw + "'; using array");
+            return TaskList.Backing.ARRAY;
+        }
     }
 
     private TaskList loadTasksOrEmpty() {
         try {
-            return new TaskList(storage.load());
+            return storage.isLazy() ? TaskList.backedBy(storage.loadLazy()) : TaskList.backedBy(storage.load(BACKING.newList()));
         } catch (OkukeException.DataFileMissingException e) {
             // Missing file is non-fatal: show message and continue with empty list.
             ui.showLoadingError(e.getMessage());
         } catch (Exception e) {
             ui.showLoadingError("[okuke.storage.Storage] Failed to load tasks: " + e.getMessage());
         }
-        return new TaskList();
+        return new TaskList(BACKING);
     }
 
     /**
@@ -51,32 +75,41 @@ public final class OKuke {
      *  2. Parse into a Command
      *  3. Execute the Command
      *  4. Handle and display errors gracefully
-     *  5. Repeat until the Command signals exit
+     *  5. Repeat until the Command signals exit or the input ends
      */
     public void run() {
-        ui.showWelcome();
-
-        while (true) {
-            try {
-                final String fullCommand = ui.readCommand();
-                if (fullCommand == null || fullCommand.isBlank()) {
-                    // Guard clause: ignore blank lines to keep the main flow linear.
-                    continue;
-                }
-
-                final Command command = Parser.parse(fullCommand);
-                command.execute(tasks, ui, storage);
-
-                if (command.isExit()) {
-                    break;
+        try {
+            ui.showWelcome();
+
+            while (true) {
+                try {
+                    final String fullCommand = ui.readCommand();
+                    if (fullCommand == null) {
+                        break; // end of input, e.g. a piped script without "bye"
+                    }
+                    if (fullCommand.isBlank()) {
+                        // Guard clause: ignore blank lines to keep the main flow linear.
+                        continue;
+                    }
+
+                    final Command command = Parser.parse(fullCommand);
+                    command.execute(tasks, ui, storage);
+
+                    if (command.isExit()) {
+                        break;
+                    }
+                } catch (OkukeException e) {
+                    ui.showError(e.getMessage());
+                } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                    ui.showError(MSG_INVALID_INDEX_OR_FORMAT);
+                } catch (Exception e) {
+                    ui.showError(MSG_UNEXPECTED_ERROR_PREFIX + safeMessage(e));
+                } finally {
+                    tasks.checkpoint(); // one undo step per command that changed the list
                 }
-            } catch (OkukeException e) {
-                ui.showError(e.getMessage());
-            } catch (NumberFormatException | IndexOutOfBoundsException e) {
-                ui.showError(MSG_INVALID_INDEX_OR_FORMAT);
-            } catch (Exception e) {
-                ui.showError(MSG_UNEXPECTED_ERROR_PREFIX + safeMessage(e));
             }
+        } finally {
+            ui.flush(); // output is buffered; nothing may be lost on exit
         }
     }
 
@@ -114,6 +147,8 @@ public final class OKuke {
             gui.showError(MSG_INVALID_INDEX_OR_FORMAT);
         } catch (Exception e) {
             gui.showError(MSG_UNEXPECTED_ERROR_PREFIX + safeMessage(e));
+        } finally {
+            tasks.checkpoint();
         }
 
         return gui.consume();
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 
 import okuke.exception.OkukeException;
+import okuke.storage.Mutation;
 import okuke.storage.Storage;
 import okuke.task.Deadline;
 import okuke.task.Task;
@@ -42,7 +43,7 @@ public class AddDeadlineCommand extends Command {
             Task t = new Deadline(desc, by); // assumes Level-8 constructor exists
             tasks.add(t);
             ui.showAdded(t, tasks);
-            saveOrWarn(storage, tasks);
+            saveOrWarn(storage, tasks, Mutation.added(t));
         } catch (DateTimeParseException dtpe) {
             throw new OkukeException.InvalidCommandException(); // reuse your friendly message
         }
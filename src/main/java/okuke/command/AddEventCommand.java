@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 
 import okuke.exception.OkukeException;
+import okuke.storage.Mutation;
 import okuke.storage.Storage;
 import okuke.task.Event;
 import okuke.task.Task;
@@ -46,7 +47,7 @@ public class AddEventCommand extends Command {
             Task t = new Event(desc, from, to); // assumes Level-8 constructor exists
             tasks.add(t);
             ui.showAdded(t, tasks);
-            saveOrWarn(storage, tasks);
+            saveOrWarn(storage, tasks, Mutation.added(t));
         } catch (DateTimeParseException dtpe) {
             throw new OkukeException.InvalidCommandException();
         }
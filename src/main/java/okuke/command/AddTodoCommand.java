@@ -1,5 +1,6 @@
 package okuke.command;
 
+import okuke.storage.Mutation;
 import okuke.storage.Storage;
 import okuke.task.Todo;
 import okuke.task.Task;
@@ -28,6 +29,6 @@ public class AddTodoCommand extends Command {
         Task t = new Todo(desc);
         tasks.add(t);
         ui.showAdded(t, tasks);
-        saveOrWarn(storage, tasks);
+        saveOrWarn(storage, tasks, Mutation.added(t));
     }
 }
@@ -0,0 +1,50 @@
+package okuke.command;
+
+import java.time.LocalDate;
+
+import okuke.storage.Storage;
+import okuke.task.TaskList;
+import okuke.ui.Ui;
+import okuke.util.DateTimeUtil;
+
+/**
+ * Displays all deadlines due within a date range and events overlapping it,
+ * both ends inclusive. The two dates may be given in either order.
+ *
+ * Example:
+ *   between 2025-09-01 2025-09-30
+ */
+public class BetweenCommand extends Command {
+    private final String fromRaw;
+    private final String toRaw;
+
+    /**
+     * Creates a date-range filter command.
+     *
+     * @param fromRaw user input for the first date (flexible formats)
+     * @param toRaw   user input for the last date (flexible formats)
+     */
+    public BetweenCommand(String fromRaw, String toRaw) {
+        this.fromRaw = fromRaw;
+        this.toRaw = toRaw;
+    }
+
+    /**
+     * Parses both dates, filters tasks with
+     * {@link okuke.task.TaskList#between(LocalDate, LocalDate)}, and prints them.
+     * No persistence or mutation is performed.
+     *
+     * @throws java.time.format.DateTimeParseException if a date cannot be parsed
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        LocalDate from = DateTimeUtil.parseFlexibleDateTime(fromRaw).toLocalDate();
+        LocalDate to = DateTimeUtil.parseFlexibleDateTime(toRaw).toLocalDate();
+        if (to.isBefore(from)) {
+            LocalDate earlier = to;
+            to = from;
+            from = earlier;
+        }
+        showDatedTasks(ui, "Items from " + from + " to " + to + ":", tasks.between(from, to));
+    }
+}
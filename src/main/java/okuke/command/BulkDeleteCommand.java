@@ -0,0 +1,41 @@
+package okuke.command;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import okuke.storage.Mutation;
+import okuke.storage.Storage;
+import okuke.task.TaskList;
+import okuke.ui.Ui;
+
+/**
+ * Deletes several tasks at once, e.g. {@code delete 3,7,9-20}.
+ */
+public class BulkDeleteCommand extends Command {
+    private final BitSet positions;
+
+    /**
+     * Creates a bulk delete command.
+     *
+     * @param positions zero-based positions of the tasks to remove
+     */
+    public BulkDeleteCommand(BitSet positions) { this.positions = positions; }
+
+    /**
+     * Removes every task in one pass, shows one summary, and saves once.
+     *
+     * @throws IndexOutOfBoundsException if any index is invalid; nothing is removed then
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        int removed = tasks.removeAll(positions).size();
+        ui.showDeletedMany(removed, tasks);
+        // Journal replay deletes one at a time, so record the highest index first.
+        List<Mutation> changes = new ArrayList<>(removed);
+        for (int i = positions.length() - 1; i >= 0; i = positions.previousSetBit(i - 1)) {
+            changes.add(Mutation.deleted(i + 1));
+        }
+        saveOrWarn(storage, tasks, changes);
+    }
+}
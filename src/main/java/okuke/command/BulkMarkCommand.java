@@ -0,0 +1,40 @@
+package okuke.command;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import okuke.storage.Mutation;
+import okuke.storage.Storage;
+import okuke.task.TaskList;
+import okuke.ui.Ui;
+
+/**
+ * Marks several tasks as done at once, e.g. {@code mark 1-500} or {@code mark 2,4,9-12}.
+ */
+public class BulkMarkCommand extends Command {
+    private final BitSet positions;
+
+    /**
+     * Creates a bulk mark command.
+     *
+     * @param positions zero-based positions of the tasks to mark
+     */
+    public BulkMarkCommand(BitSet positions) { this.positions = positions; }
+
+    /**
+     * Marks every task, shows one summary, and saves once.
+     *
+     * @throws IndexOutOfBoundsException if any index is invalid; nothing is marked then
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        tasks.markAll(positions);
+        ui.showMarkedMany(positions.cardinality());
+        List<Mutation> changes = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            changes.add(Mutation.marked(i + 1));
+        }
+        saveOrWarn(storage, tasks, changes);
+    }
+}
@@ -0,0 +1,40 @@
+package okuke.command;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import okuke.storage.Mutation;
+import okuke.storage.Storage;
+import okuke.task.TaskList;
+import okuke.ui.Ui;
+
+/**
+ * Unmarks several tasks at once, e.g. {@code unmark 1-500} or {@code unmark 2,4,9-12}.
+ */
+public class BulkUnmarkCommand extends Command {
+    private final BitSet positions;
+
+    /**
+     * Creates a bulk unmark command.
+     *
+     * @param positions zero-based positions of the tasks to unmark
+     */
+    public BulkUnmarkCommand(BitSet positions) { this.positions = positions; }
+
+    /**
+     * Unmarks every task, shows one summary, and saves once.
+     *
+     * @throws IndexOutOfBoundsException if any index is invalid; nothing is unmarked then
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        tasks.unmarkAll(positions);
+        ui.showUnmarkedMany(positions.cardinality());
+        List<Mutation> changes = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            changes.add(Mutation.unmarked(i + 1));
+        }
+        saveOrWarn(storage, tasks, changes);
+    }
+}
@@ -1,6 +1,10 @@
 package okuke.command;
 
+import java.util.List;
+
+import okuke.storage.Mutation;
 import okuke.storage.Storage;
+import okuke.task.Task;
 import okuke.task.TaskList;
 import okuke.ui.Ui;
 
@@ -29,16 +33,93 @@ public abstract class Command {
 
     /**
      * Persists the current tasks to disk; logs (to stderr) if saving fails.
-     * Intended for use by mutating commands after state changes.
+     * Intended for use by mutating commands after state changes. Only records that
+     * changed since the last save are written when possible.
      *
      * @param storage storage instance responsible for saving
      * @param tasks   the tasks to persist
      */
     protected void saveOrWarn(Storage storage, TaskList tasks) {
         try {
-            storage.save(tasks.asList());
+            storage.save(tasks);
         } catch (Exception e) {
             System.err.println("[okuke.storage.Storage] Failed to save: " + e.getMessage());
         }
     }
+
+    /**
+     * Persists a single change to disk; logs (to stderr) if saving fails.
+     * In journal mode only the change itself is written, not the whole list.
+     *
+     * @param storage storage instance responsible for saving
+     * @param tasks   the tasks after the change was applied
+     * @param change  the change to record
+     */
+    protected void saveOrWarn(Storage storage, TaskList tasks, Mutation change) {
+        try {
+            storage.record(tasks, change);
+        } catch (Exception e) {
+            System.err.println("[okuke.storage.Storage] Failed to save: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Persists a batch of changes with a single write; logs (to stderr) if saving fails.
+     * In journal mode the records are appended together; otherwise the list is saved once.
+     *
+     * @param storage storage instance responsible for saving
+     * @param tasks   the tasks after the changes were applied
+     * @param changes the changes to record, in the order they were applied
+     */
+    protected void saveOrWarn(Storage storage, TaskList tasks, List<Mutation> changes) {
+        try {
+            storage.record(tasks, changes);
+        } catch (Exception e) {
+            System.err.println("[okuke.storage.Storage] Failed to save: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints {@code items} as a numbered list under {@code header}, or a placeholder
+     * when there are none, using the UI header/footer. Intended for read-only queries.
+     *
+     * @param ui     the UI used to render output
+     * @param header heading shown above a non-empty list
+     * @param items  the tasks to list
+     */
+    protected void showTasks(Ui ui, String header, List<Task> items) {
+        if (items.isEmpty()) {
+            ui.showHelp("  (no matching tasks)");
+        } else {
+            ui.showItemsHeader(header);
+            StringBuilder sb = Ui.rowsBuilder(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                sb.append(' ').append(i + 1).append('.').append(items.get(i)).append(System.lineSeparator());
+            }
+            ui.showHelp(sb.toString().stripTrailing());
+        }
+        ui.showItemsFooter();
+    }
+
+    /**
+     * Prints the result of a date query the way {@code on} always has: the header,
+     * then one bulleted row per task, or {@code (none)} when there are no tasks.
+     *
+     * @param ui     the UI used to render output
+     * @param header heading naming the dates that were queried
+     * @param items  the tasks to list
+     */
+    protected void showDatedTasks(Ui ui, String header, List<Task> items) {
+        ui.showItemsHeader(header);
+        if (items.isEmpty()) {
+            ui.showHelp("  (none)");
+        } else {
+            StringBuilder sb = Ui.rowsBuilder(items.size());
+            for (Task t : items) {
+                sb.append(" - ").append(t).append(System.lineSeparator());
+            }
+            ui.showHelp(sb.toString().stripTrailing());
+        }
+        ui.showItemsFooter();
+    }
 }
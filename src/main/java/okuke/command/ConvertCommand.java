@@ -0,0 +1,32 @@
+package okuke.command;
+
+import okuke.storage.Storage;
+import okuke.task.TaskList;
+import okuke.ui.Ui;
+
+/**
+ * Rewrites the data file in another on-disk format (text, binary or gzip).
+ * The chosen format is kept for all later saves.
+ */
+public class ConvertCommand extends Command {
+    private final Storage.Format target;
+
+    /**
+     * Creates a convert command.
+     *
+     * @param target the snapshot format to switch to
+     */
+    public ConvertCommand(Storage.Format target) { this.target = target; }
+
+    /**
+     * Writes the whole list in the target format and reports the result.
+     *
+     * @throws java.io.IOException if the data file cannot be written
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws Exception {
+        storage.convert(tasks, target);
+        ui.showItemsHeader("Data file converted to " + target.name().toLowerCase() + " format.");
+        ui.showItemsFooter();
+    }
+}
@@ -1,5 +1,6 @@
 package okuke.command;
 
+import okuke.storage.Mutation;
 import okuke.storage.Storage;
 import okuke.task.Task;
 import okuke.task.TaskList;
@@ -28,6 +29,6 @@ public class DeleteCommand extends Command {
     public void execute(TaskList tasks, Ui ui, Storage storage) {
         Task removed = tasks.removeOneBased(indexOneBased);
         ui.showDeleted(removed, tasks);
-        saveOrWarn(storage, tasks);
+        saveOrWarn(storage, tasks, Mutation.deleted(indexOneBased));
     }
 }
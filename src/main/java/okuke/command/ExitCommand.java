@@ -10,10 +10,15 @@ import okuke.ui.Ui;
 public class ExitCommand extends Command {
 
     /**
-     * Prints the goodbye message. No persistence is performed.
+     * Waits for any queued saves to reach the disk, then prints the goodbye message.
      */
     @Override
     public void execute(TaskList tasks, Ui ui, Storage storage) {
+        try {
+            storage.flush();
+        } catch (Exception e) {
+            System.err.println("[okuke.storage.Storage] Failed to save: " + e.getMessage());
+        }
         ui.showBye();
     }
 
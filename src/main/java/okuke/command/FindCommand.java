@@ -46,9 +46,9 @@ public class FindCommand extends Command {
         } else {
             ui.showItemsHeader("Here are the matching tasks in your list:");
             // Build the numbered list and send as one chunk to the GUI buffer
-            StringBuilder sb = new StringBuilder();
+            StringBuilder sb = Ui.rowsBuilder(matches.size());
             for (int i = 0; i < matches.size(); i++) {
-                sb.append(String.format(" %d.%s%n", i + 1, matches.get(i)));
+                sb.append(' ').append(i + 1).append('.').append(matches.get(i)).append(System.lineSeparator());
             }
             // strip trailing newline for tidier output
             ui.showHelp(sb.toString().stripTrailing());
@@ -13,16 +13,29 @@ public final class HelpCommand extends Command {
             "Here are the available commands:",
             "  bye                  : Exit the program",
             "  list                 : Show all tasks",
+            "  list [/done|/undone] [/type D|E|T]",
+            "                       : Show only tasks with that status and/or type",
             "  mark <index>         : Mark a task as done (1-based index)",
             "  unmark <index>       : Unmark a task (1-based index)",
             "  delete <index>       : Delete a task (1-based index)",
+            "  mark|unmark|delete <list>",
+            "                       : Apply to many tasks at once, e.g. 1-500 or 3,7,9-20",
             "  todo <desc>          : Add a todo task",
             "  deadline <desc> /by <yyyy-MM-dd HH:mm>",
             "                       : Add a deadline task",
             "  event <desc> /from <yyyy-MM-dd HH:mm> /to <yyyy-MM-dd HH:mm>",
             "                       : Add an event task",
             "  on <yyyy-MM-dd>      : Show tasks occurring on a specific date",
+            "  between <yyyy-MM-dd> <yyyy-MM-dd>",
+            "                       : Show tasks occurring within a date range",
+            "  overdue              : Show unfinished deadlines that have passed",
+            "  upcoming [n]         : Show the next n (default 10) deadlines and events",
             "  find <keyword>       : Find tasks containing the keyword",
+            "  search <words>       : Show the 10 best matches for the words, allowing typos",
+            "  undo                 : Undo the last change to the list",
+            "  redo                 : Redo the last undone change",
+            "  convert text|binary|gzip",
+            "                       : Rewrite the data file in the given format",
             "  help                 : Show this help message"
     );
 
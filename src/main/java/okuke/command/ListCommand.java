@@ -1,20 +1,68 @@
 package okuke.command;
 
+import java.util.BitSet;
+
 import okuke.storage.Storage;
 import okuke.task.TaskList;
 import okuke.ui.Ui;
 
 /**
- * Displays the current list of tasks.
+ * Displays the current list of tasks, optionally only those with a given status
+ * and/or type.
+ *
+ * Example:
+ *   list /undone /type D|E
+ *   ____________________________________________________________
+ *   Here are the matching tasks in your list:
+ *   2.[D][ ] return book (by: Jun 06 2025)
+ *   5.[E][ ] project meeting (from: Aug 06 2025 14:00 to: Aug 06 2025 16:00)
+ *   ____________________________________________________________
  */
 public class ListCommand extends Command {
+    private final Boolean done;
+    private final String types;
+
+    /**
+     * Creates a command that lists every task.
+     */
+    public ListCommand() {
+        this(null, null);
+    }
+
+    /**
+     * Creates a command that lists only matching tasks.
+     *
+     * @param done  {@code true} for done tasks, {@code false} for open ones, {@code null} for either
+     * @param types type letters to include (e.g. {@code "DE"}), or {@code null} for every type
+     */
+    public ListCommand(Boolean done, String types) {
+        this.done = done;
+        this.types = types;
+    }
 
     /**
-     * Delegates to {@link okuke.ui.Ui#showList(okuke.task.TaskList)}.
+     * Without filters, delegates to {@link okuke.ui.Ui#showList(okuke.task.TaskList)}.
+     * With filters, prints the matches from
+     * {@link okuke.task.TaskList#positionsMatching(Boolean, String)} under their list numbers.
      * No persistence or mutation is performed.
      */
     @Override
     public void execute(TaskList tasks, Ui ui, Storage storage) {
-        ui.showList(tasks);
+        if (done == null && types == null) {
+            ui.showList(tasks);
+            return;
+        }
+        BitSet matches = tasks.positionsMatching(done, types);
+        if (matches.isEmpty()) {
+            ui.showHelp("  (no matching tasks)");
+        } else {
+            ui.showItemsHeader("Here are the matching tasks in your list:");
+            StringBuilder sb = Ui.rowsBuilder(matches.cardinality());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                sb.append(i + 1).append('.').append(tasks.get(i)).append(System.lineSeparator());
+            }
+            ui.showHelp(sb.toString().stripTrailing());
+        }
+        ui.showItemsFooter();
     }
 }
@@ -1,5 +1,6 @@
 package okuke.command;
 
+import okuke.storage.Mutation;
 import okuke.storage.Storage;
 import okuke.task.Task;
 import okuke.task.TaskList;
@@ -27,6 +28,6 @@ public class MarkCommand extends Command {
     public void execute(TaskList tasks, Ui ui, Storage storage) {
         Task t = tasks.markOneBased(indexOneBased);
         ui.showMark(t);
-        saveOrWarn(storage, tasks);
+        saveOrWarn(storage, tasks, Mutation.marked(indexOneBased));
     }
 }
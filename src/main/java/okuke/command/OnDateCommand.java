@@ -4,7 +4,6 @@ import java.time.LocalDate;
 
 import okuke.util.DateTimeUtil;
 import okuke.storage.Storage;
-import okuke.task.Task;
 import okuke.task.TaskList;
 import okuke.ui.Ui;
 
@@ -32,15 +31,6 @@ public class OnDateCommand extends Command {
     @Override
     public void execute(TaskList tasks, Ui ui, Storage storage) {
         LocalDate date = DateTimeUtil.parseFlexibleDateTime(dateRaw).toLocalDate();
-        var items = tasks.occurringOn(date);
-        ui.showItemsHeader("Items on " + date + ":");
-        if (items.isEmpty()) {
-            System.out.println("  (none)");
-        } else {
-            for (Task t : items) {
-                System.out.println(" - " + t);
-            }
-        }
-        ui.showItemsFooter();
+        showDatedTasks(ui, "Items on " + date + ":", tasks.occurringOn(date));
     }
 }
@@ -0,0 +1,22 @@
+package okuke.command;
+
+import java.time.LocalDateTime;
+
+import okuke.storage.Storage;
+import okuke.task.TaskList;
+import okuke.ui.Ui;
+
+/**
+ * Displays unfinished deadlines whose due time has passed, most overdue first.
+ */
+public class OverdueCommand extends Command {
+
+    /**
+     * Lists tasks from {@link okuke.task.TaskList#overdue(LocalDateTime)} as of now.
+     * No persistence or mutation is performed.
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        showDatedTasks(ui, "Overdue items:", tasks.overdue(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,28 @@
+package okuke.command;
+
+import okuke.storage.Storage;
+import okuke.task.TaskList;
+import okuke.ui.Ui;
+
+/**
+ * Reapplies the change reverted by the last {@link UndoCommand}.
+ */
+public class RedoCommand extends Command {
+
+    /**
+     * Restores the next version via {@link TaskList#redo()}, shows the outcome,
+     * and saves the restored list to storage.
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        if (!tasks.isUndoEnabled()) {
+            ui.showError(UndoCommand.MSG_UNDO_OFF);
+            return;
+        }
+        boolean redone = tasks.redo();
+        ui.showRedone(redone, tasks);
+        if (redone) {
+            saveOrWarn(storage, tasks);
+        }
+    }
+}
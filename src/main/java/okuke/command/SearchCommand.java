@@ -0,0 +1,40 @@
+package okuke.command;
+
+import okuke.storage.Storage;
+import okuke.task.TaskList;
+import okuke.ui.Ui;
+
+/**
+ * Displays the tasks that best match some words, tolerating typos, best match first.
+ *
+ * Example:
+ *   search retrn bookk
+ *   ____________________________________________________________
+ *    Here are the best matches in your list:
+ *    1.[D][ ] return book (by: Jun 06 2025 18:00)
+ *   ____________________________________________________________
+ */
+public class SearchCommand extends Command {
+    /** Number of matches shown. */
+    public static final int DEFAULT_COUNT = 10;
+
+    private final String terms;
+
+    /**
+     * Creates a search command.
+     *
+     * @param terms the words to look for in task descriptions
+     */
+    public SearchCommand(String terms) {
+        this.terms = terms;
+    }
+
+    /**
+     * Lists the top matches from {@link TaskList#search(String, int)}.
+     * No persistence or mutation is performed.
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        showTasks(ui, "Here are the best matches in your list:", tasks.search(terms, DEFAULT_COUNT));
+    }
+}
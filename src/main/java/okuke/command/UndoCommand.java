@@ -0,0 +1,31 @@
+package okuke.command;
+
+import okuke.storage.Storage;
+import okuke.task.TaskList;
+import okuke.ui.Ui;
+
+/**
+ * Reverts the task list to how it was before the last command that changed it.
+ */
+public class UndoCommand extends Command {
+    /** Shown by undo and redo when the list keeps no versions. */
+    static final String MSG_UNDO_OFF =
+            "Undo is off. Start with -Dokuke.task.backing=persistent to turn it on.";
+
+    /**
+     * Restores the previous version via {@link TaskList#undo()}, shows the outcome,
+     * and saves the restored list to storage.
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        if (!tasks.isUndoEnabled()) {
+            ui.showError(MSG_UNDO_OFF);
+            return;
+        }
+        boolean undone = tasks.undo();
+        ui.showUndone(undone, tasks);
+        if (undone) {
+            saveOrWarn(storage, tasks);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package okuke.command;
+
+import java.time.LocalDateTime;
+
+import okuke.storage.Storage;
+import okuke.task.TaskList;
+import okuke.ui.Ui;
+
+/**
+ * Displays the next few unfinished deadlines and events, soonest first.
+ *
+ * Example:
+ *   upcoming 5
+ */
+public class UpcomingCommand extends Command {
+    /** How many tasks {@code upcoming} shows when no count is given. */
+    public static final int DEFAULT_COUNT = 10;
+
+    private final int count;
+
+    /**
+     * Creates an upcoming-tasks command.
+     *
+     * @param count maximum number of tasks to show (positive)
+     */
+    public UpcomingCommand(int count) {
+        assert count > 0 : "count must be positive";
+        this.count = count;
+    }
+
+    /**
+     * Lists tasks from {@link okuke.task.TaskList#upcoming(LocalDateTime, int)} as of now.
+     * No persistence or mutation is performed.
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        showDatedTasks(ui, "Upcoming items:", tasks.upcoming(LocalDateTime.now(), count));
+    }
+}
@@ -46,6 +46,21 @@ public class OkukeException extends Exception {
         }
     }
 
+    /**
+     * Thrown when a count provided by the user (e.g., for upcoming) is not a
+     * positive whole number.
+     */
+    public static class InvalidCountException extends OkukeException {
+        private static final String errorMessage = """
+                ______________________________________________
+                The count must be a whole number above 0.
+                ______________________________________________""";
+
+        public InvalidCountException() {
+            super(errorMessage);
+        }
+    }
+
     /**
      * Thrown when a command that requires a task name (e.g., todo)
      * is missing the description portion.
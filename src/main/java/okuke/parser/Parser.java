@@ -1,5 +1,6 @@
 package okuke.parser;
 
+import java.util.BitSet;
 import java.util.Objects;
 import java.util.regex.Pattern;
 
@@ -11,11 +12,22 @@ import okuke.command.ListCommand;
 import okuke.command.MarkCommand;
 import okuke.command.UnmarkCommand;
 import okuke.command.DeleteCommand;
+import okuke.command.BulkMarkCommand;
+import okuke.command.BulkUnmarkCommand;
+import okuke.command.BulkDeleteCommand;
 import okuke.command.AddTodoCommand;
 import okuke.command.AddDeadlineCommand;
 import okuke.command.AddEventCommand;
 import okuke.command.OnDateCommand;
+import okuke.command.BetweenCommand;
+import okuke.command.OverdueCommand;
+import okuke.command.UpcomingCommand;
 import okuke.command.FindCommand;
+import okuke.command.SearchCommand;
+import okuke.command.ConvertCommand;
+import okuke.command.UndoCommand;
+import okuke.command.RedoCommand;
+import okuke.storage.Storage;
 
 /**
  * Parses raw user input strings into executable {@code Command} instances.
@@ -41,8 +53,15 @@ public final class Parser {
         static final String DEADLINE = "deadline";
         static final String EVENT    = "event";
         static final String ON       = "on";
+        static final String BETWEEN  = "between";
+        static final String OVERDUE  = "overdue";
+        static final String UPCOMING = "upcoming";
         static final String FIND     = "find";
+        static final String SEARCH   = "search";
         static final String HELP     = "help";
+        static final String CONVERT  = "convert";
+        static final String UNDO     = "undo";
+        static final String REDO     = "redo";
     }
 
     // -------- Regex patterns (precompiled for clarity/perf) --------
@@ -50,6 +69,12 @@ public final class Parser {
     private static final Pattern DEADLINE_BY_SPLIT    = Pattern.compile("\\s+/by\\s+");
     private static final Pattern EVENT_FROM_SPLIT     = Pattern.compile("\\s+/from\\s+");
     private static final Pattern EVENT_TO_SPLIT       = Pattern.compile("\\s+/to\\s+");
+    private static final Pattern TYPE_SPLIT           = Pattern.compile("\\|");
+    private static final Pattern INDEX_LIST_SPLIT     = Pattern.compile("\\s*,\\s*");
+    private static final Pattern INDEX_RANGE_SPLIT    = Pattern.compile("\\s*-\\s*");
+
+    /** Largest index accepted in a range; bounds the bitmap built before the list is checked. */
+    private static final int MAX_BULK_INDEX = 1 << 27;
 
     /**
      * Parses a full command line into a concrete {@link okuke.command.Command}.
@@ -73,7 +98,7 @@ public final class Parser {
 
         return switch (head) {
             case Cmd.BYE      -> new ExitCommand();
-            case Cmd.LIST     -> new ListCommand();
+            case Cmd.LIST     -> parseList(tail);
             case Cmd.MARK     -> parseMark(tail);
             case Cmd.UNMARK   -> parseUnmark(tail);
             case Cmd.DELETE   -> parseDelete(tail);
@@ -81,22 +106,68 @@ public final class Parser {
             case Cmd.DEADLINE -> parseDeadline(tail);
             case Cmd.EVENT    -> parseEvent(tail);
             case Cmd.ON       -> parseOnDate(tail);
+            case Cmd.BETWEEN  -> parseBetween(tail);
+            case Cmd.OVERDUE  -> new OverdueCommand();
+            case Cmd.UPCOMING -> parseUpcoming(tail);
             case Cmd.FIND     -> parseFind(tail);
+            case Cmd.SEARCH   -> parseSearch(tail);
             case Cmd.HELP     -> new HelpCommand();
+            case Cmd.CONVERT  -> parseConvert(tail);
+            case Cmd.UNDO     -> new UndoCommand();
+            case Cmd.REDO     -> new RedoCommand();
             default           -> throw new OkukeException.InvalidCommandException();
         };
     }
 
+    private static Command parseList(String tail) throws OkukeException {
+        // "list", optionally with "/done" or "/undone" and "/type D|E|T"
+        Boolean done = null;
+        String types = null;
+        String[] words = SPACE_SPLIT.split(tail.trim());
+        for (int i = 0; i < words.length; i++) {
+            switch (words[i].toLowerCase()) {
+                case "" -> { }
+                case "/done", "/undone" -> {
+                    boolean wanted = words[i].equalsIgnoreCase("/done");
+                    if (done != null && done != wanted) {
+                        throw new OkukeException.InvalidCommandException();
+                    }
+                    done = wanted;
+                }
+                case "/type" -> {
+                    if (types != null || i + 1 == words.length) {
+                        throw new OkukeException.InvalidCommandException();
+                    }
+                    types = parseTypes(words[++i]);
+                }
+                default -> throw new OkukeException.InvalidCommandException();
+            }
+        }
+        return new ListCommand(done, types);
+    }
+
+    /** Turns "D|e" into "DE", rejecting anything but the letters T, D and E. */
+    private static String parseTypes(String s) throws OkukeException {
+        StringBuilder types = new StringBuilder();
+        for (String letter : TYPE_SPLIT.split(s.toUpperCase())) {
+            if (!letter.equals("T") && !letter.equals("D") && !letter.equals("E")) {
+                throw new OkukeException.InvalidCommandException();
+            }
+            types.append(letter);
+        }
+        return types.toString();
+    }
+
     private static Command parseMark(String tail) throws OkukeException {
-        return new MarkCommand(parseIndex(tail));
+        return isIndexList(tail) ? new BulkMarkCommand(parseIndexList(tail)) : new MarkCommand(parseIndex(tail));
     }
 
     private static Command parseUnmark(String tail) throws OkukeException {
-        return new UnmarkCommand(parseIndex(tail));
+        return isIndexList(tail) ? new BulkUnmarkCommand(parseIndexList(tail)) : new UnmarkCommand(parseIndex(tail));
     }
 
     private static Command parseDelete(String tail) throws OkukeException {
-        return new DeleteCommand(parseIndex(tail));
+        return isIndexList(tail) ? new BulkDeleteCommand(parseIndexList(tail)) : new DeleteCommand(parseIndex(tail));
     }
 
     private static Command parseTodo(String tail) throws OkukeException {
@@ -149,6 +220,23 @@ public final class Parser {
         return new OnDateCommand(tail.trim());
     }
 
+    private static Command parseBetween(String tail) throws OkukeException {
+        // "between FROM TO", each a single date token
+        String[] dates = SPACE_SPLIT.split(tail.trim());
+        if (dates.length != 2 || dates[0].isEmpty()) {
+            throw new OkukeException.InvalidCommandException();
+        }
+        return new BetweenCommand(dates[0], dates[1]);
+    }
+
+    private static Command parseUpcoming(String tail) throws OkukeException {
+        // "upcoming" or "upcoming N"
+        if (tail.isBlank()) {
+            return new UpcomingCommand(UpcomingCommand.DEFAULT_COUNT);
+        }
+        return new UpcomingCommand(parseCount(tail));
+    }
+
     private static Command parseFind(String tail) throws OkukeException {
         if (tail == null || tail.isBlank()) {
             throw new OkukeException.InvalidCommandException();
@@ -156,6 +244,73 @@ public final class Parser {
         return new FindCommand(tail.trim());
     }
 
+    private static Command parseSearch(String tail) throws OkukeException {
+        if (tail == null || tail.isBlank()) {
+            throw new OkukeException.InvalidCommandException();
+        }
+        return new SearchCommand(tail.trim());
+    }
+
+    private static Command parseConvert(String tail) throws OkukeException {
+        // "convert text", "convert binary" or "convert gzip"
+        return switch (tail.trim().toLowerCase()) {
+            case "text"   -> new ConvertCommand(Storage.Format.TEXT);
+            case "binary" -> new ConvertCommand(Storage.Format.BINARY);
+            case "gzip"   -> new ConvertCommand(Storage.Format.GZIP);
+            default       -> throw new OkukeException.InvalidCommandException();
+        };
+    }
+
+    private static boolean isIndexList(String tail) {
+        return tail.indexOf(',') >= 0 || tail.indexOf('-') >= 0;
+    }
+
+    /**
+     * Converts a list of 1-based indexes and inclusive ranges, such as {@code "3,7,9-20"},
+     * into the zero-based positions they cover.
+     *
+     * @param s the user-provided list
+     * @return the positions, each at most once
+     * @throws okuke.exception.OkukeException.InvalidCommandException if an item is not a
+     *         positive index or an ascending range of them
+     */
+    private static BitSet parseIndexList(String s) throws OkukeException.InvalidCommandException {
+        BitSet positions = new BitSet();
+        for (String item : INDEX_LIST_SPLIT.split(s.trim(), -1)) {
+            String[] bounds = INDEX_RANGE_SPLIT.split(item, -1);
+            if (bounds.length > 2) {
+                throw new OkukeException.InvalidCommandException();
+            }
+            int from = parseIndex(bounds[0]);
+            int to = bounds.length == 2 ? parseIndex(bounds[1]) : from;
+            if (to < from || to > MAX_BULK_INDEX) {
+                throw new OkukeException.InvalidCommandException();
+            }
+            positions.set(from - 1, to);
+        }
+        return positions;
+    }
+
+    /**
+     * Converts a count string (as typed by the user) into a positive integer.
+     *
+     * @param s the user-provided count token
+     * @return the parsed count, at least 1
+     * @throws okuke.exception.OkukeException.InvalidCountException if {@code s} is not a positive integer
+     */
+    private static int parseCount(String s) throws OkukeException.InvalidCountException {
+        int count;
+        try {
+            count = Integer.parseInt(s.trim());
+        } catch (NumberFormatException nfe) {
+            throw new OkukeException.InvalidCountException();
+        }
+        if (count <= 0) {
+            throw new OkukeException.InvalidCountException();
+        }
+        return count;
+    }
+
     /**
      * Converts a 1-based index string (as typed by the user) into an integer.
      * Rejects non-numeric inputs and surfaces a friendly parse error.
@@ -0,0 +1,218 @@
+package okuke.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import okuke.task.Deadline;
+import okuke.task.Event;
+import okuke.task.Task;
+import okuke.task.Todo;
+
+/**
+ * Compact binary snapshot format, selected automatically by its header.
+ * <pre>
+ *   header : int magic ("OKUK"), short version, int record count
+ *   record : byte type ('T' | 'D' | 'E'), byte done (0 | 1),
+ *            int name length, UTF-8 name bytes,
+ *            long epoch second per date ("by" for D, "from" then "to" for E)
+ * </pre>
+ * Date/times are stored as seconds since the epoch in UTC, i.e. the local
+ * date-time is taken as-is with no zone shift. Sub-second parts are dropped.
+ * Decoding needs no regex, no splitting and no exception-driven fallback.
+ */
+final class BinaryFormat {
+    static final int MAGIC = 0x4F4B554B; // "OKUK"
+    static final short VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Integer.BYTES;
+    private static final int MIN_RECORD_BYTES = 2 + Integer.BYTES; // type, done, name length
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+
+    private BinaryFormat() { /* utility */ }
+
+    /**
+     * Checks whether the file starts with the binary magic number.
+     *
+     * @param file the data file to inspect
+     * @return {@code true} if the file is in binary format
+     * @throws IOException if the file exists but cannot be read
+     */
+    static boolean isBinary(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < Integer.BYTES) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return in.readInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Writes all tasks to {@code file}, replacing its contents.
+     *
+     * @param file  the file to write
+     * @param tasks the tasks to encode
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, List<Task> tasks) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            int count = 0;
+            for (Task t : tasks) {
+                if (typeOf(t) != 0) count++;
+            }
+            out.writeInt(count);
+            for (Task t : tasks) {
+                writeRecord(out, t);
+            }
+        }
+    }
+
+    /**
+     * Reads every record from {@code file} into {@code out}.
+     * A truncated or unknown record is reported and ends the read, since
+     * later records cannot be located reliably after it. A record count or name
+     * length larger than the rest of the file is damage too, and is never used to
+     * size a buffer.
+     *
+     * @param file the binary file to read
+     * @param out  receives the decoded tasks in file order
+     * @return CRC32 over the raw file bytes
+     * @throws IOException if the file cannot be read or has an unsupported header
+     */
+    static long read(Path file, List<Task> out) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream raw = new CheckedInputStream(Files.newInputStream(file), crc);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an OKuke binary data file: " + file);
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary data version " + version + " in " + file);
+            }
+            int count = in.readInt();
+            long left = Files.size(file) - HEADER_BYTES; // bytes not yet read
+            if (count < 0 || count > left / MIN_RECORD_BYTES) {
+                System.err.println("[okuke.storage.Storage] Corrupted binary record count " + count
+                        + "; reading records until the file ends");
+                count = (int) (left / MIN_RECORD_BYTES);
+            }
+            if (out instanceof ArrayList<Task> list) {
+                list.ensureCapacity(out.size() + count);
+            }
+
+            byte[] nameBuf = new byte[64];
+            for (int i = 1; i <= count; i++) {
+                try {
+                    byte type = in.readByte();
+                    boolean done = in.readByte() != 0;
+                    int len = in.readInt();
+                    left -= MIN_RECORD_BYTES;
+                    if (len < 0 || len > left) {
+                        System.err.println("[okuke.storage.Storage] Stopped at corrupted binary record " + i);
+                        break;
+                    }
+                    left -= len;
+                    if (len > nameBuf.length) {
+                        nameBuf = new byte[Math.max(len, nameBuf.length * 2)];
+                    }
+                    in.readFully(nameBuf, 0, len);
+                    Task t = readRecord(in, type, new String(nameBuf, 0, len, StandardCharsets.UTF_8));
+                    if (t == null) {
+                        System.err.println("[okuke.storage.Storage] Stopped at corrupted binary record " + i);
+                        break;
+                    }
+                    left -= (long) Long.BYTES * dateCount(type);
+                    if (done) t.setMark();
+                    out.add(t);
+                } catch (EOFException e) {
+                    System.err.println("[okuke.storage.Storage] Binary data file truncated at record " + i);
+                    break;
+                }
+            }
+            // Drain so the CRC covers the whole file, as it does for text snapshots.
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return crc.getValue();
+    }
+
+    private static void writeRecord(DataOutputStream out, Task t) throws IOException {
+        byte type = typeOf(t);
+        if (type == 0) {
+            return; // unknown type, skipped just like the text format does
+        }
+        out.writeByte(type);
+        out.writeByte("X".equals(t.getStatus()) ? 1 : 0);
+        byte[] name = t.getTaskName().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(name.length);
+        out.write(name);
+        if (t instanceof Deadline d) {
+            out.writeLong(toEpochSecond(d.getByDateTime()));
+        } else if (t instanceof Event e) {
+            out.writeLong(toEpochSecond(e.getStartDateTime()));
+            out.writeLong(toEpochSecond(e.getEndDateTime()));
+        }
+    }
+
+    private static byte typeOf(Task t) {
+        if (t instanceof Todo) {
+            return TODO;
+        } else if (t instanceof Deadline) {
+            return DEADLINE;
+        } else if (t instanceof Event) {
+            return EVENT;
+        }
+        return 0;
+    }
+
+    /**
+     * Decodes the date fields of one record whose header and name have been read.
+     *
+     * @return the task, or {@code null} if the type tag is unknown
+     */
+    private static Task readRecord(DataInputStream in, byte type, String name) throws IOException {
+        switch (type) {
+            case TODO:
+                return new Todo(name);
+            case DEADLINE:
+                return new Deadline(name, fromEpochSecond(in.readLong()));
+            case EVENT:
+                LocalDateTime from = fromEpochSecond(in.readLong());
+                return new Event(name, from, fromEpochSecond(in.readLong()));
+            default:
+                return null;
+        }
+    }
+
+    private static int dateCount(byte type) {
+        return type == EVENT ? 2 : type == DEADLINE ? 1 : 0;
+    }
+
+    private static long toEpochSecond(LocalDateTime dt) {
+        return dt.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpochSecond(long sec) {
+        return LocalDateTime.ofEpochSecond(sec, 0, ZoneOffset.UTC);
+    }
+}
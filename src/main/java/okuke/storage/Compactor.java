@@ -0,0 +1,159 @@
+package okuke.storage;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import okuke.task.Task;
+
+/**
+ * Folds the journal into a fresh snapshot on a background thread.
+ *
+ * <p>When the live journal passes a threshold, the foreground only renames it to
+ * {@code <data file>.journal.compacting} and keeps appending to a new, empty journal.
+ * The background thread then works purely from disk:</p>
+ * <ol>
+ *   <li>read the current snapshot and replay the rotated journal on top of it;</li>
+ *   <li>seal the rotated journal with a base record (CRC32 of that snapshot);</li>
+ *   <li>write the new snapshot to a temp file and {@code ATOMIC_MOVE} it into place;</li>
+ *   <li>delete the rotated journal.</li>
+ * </ol>
+ * A crash at any point leaves either the old snapshot plus the rotated journal, or the
+ * new snapshot plus a rotated journal whose base record no longer matches and is ignored.
+ */
+final class Compactor {
+    static final int DEFAULT_MAX_RECORDS = 10_000;
+    static final long DEFAULT_MAX_BYTES = 1L << 20; // 1 MiB
+
+    private static final String ROTATED_SUFFIX = ".compacting";
+
+    private final Storage storage;
+    private final Journal journal;
+    private final Journal rotated;
+    private final ExecutorService worker;
+
+    private int maxRecords = DEFAULT_MAX_RECORDS;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private Future<?> running;
+
+    Compactor(Storage storage, Journal journal) {
+        this.storage = storage;
+        this.journal = journal;
+        this.rotated = new Journal(Paths.get(journal.path() + ROTATED_SUFFIX), storage.getStats());
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "okuke-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void setThresholds(int maxRecords, long maxBytes) {
+        assert maxRecords > 0 && maxBytes > 0 : "thresholds must be positive";
+        this.maxRecords = maxRecords;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Replays a rotated journal left behind by an interrupted compaction, if any.
+     *
+     * @param tasks       tasks loaded from the snapshot; mutated in place
+     * @param snapshotCrc CRC32 of that snapshot
+     * @throws IOException if the rotated journal cannot be read or removed
+     */
+    void recover(List<Task> tasks, long snapshotCrc) throws IOException {
+        if (!rotated.replay(tasks, snapshotCrc)) {
+            // Already folded into the current snapshot before the crash.
+            rotated.delete();
+        }
+    }
+
+    /**
+     * Starts a background compaction if the journal is over a threshold and none is running.
+     * Only renames a file on the calling thread.
+     *
+     * @throws IOException if the journal cannot be rotated
+     */
+    synchronized void maybeStart() throws IOException {
+        if (running != null && !running.isDone()) {
+            return;
+        }
+        if (journal.records() < maxRecords && journal.bytes() < maxBytes) {
+            return;
+        }
+        if (!rotated.exists()) {
+            journal.moveTo(rotated.path());
+        }
+        // Otherwise a rotated journal from an earlier crash is still pending; fold that first.
+        running = worker.submit(this::compact);
+    }
+
+    /**
+     * Blocks until the running compaction, if any, has finished.
+     */
+    void awaitIdle() {
+        Future<?> f;
+        synchronized (this) {
+            f = running;
+        }
+        if (f == null) {
+            return;
+        }
+        try {
+            f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // compact() reports its own failures
+        }
+    }
+
+    /**
+     * Returns whether a rotated journal is waiting to be folded into the snapshot.
+     *
+     * @return {@code true} if the rotated journal file exists
+     */
+    boolean hasRotated() {
+        return rotated.exists();
+    }
+
+    /**
+     * Seals a pending rotated journal to the snapshot a full save is about to replace.
+     *
+     * @param snapshotCrc CRC32 of the current snapshot
+     * @param force       whether to fsync the seal
+     * @throws IOException if the rotated journal cannot be written
+     */
+    void sealRotated(long snapshotCrc, boolean force) throws IOException {
+        if (rotated.exists()) {
+            rotated.seal(snapshotCrc, force);
+        }
+    }
+
+    /**
+     * Drops the rotated journal. Used after a full save, which already covers it.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    void discardRotated() throws IOException {
+        rotated.delete();
+    }
+
+    private void compact() {
+        try {
+            List<Task> tasks = new ArrayList<>();
+            Storage.Format format = Storage.detectFormat(storage.path());
+            long baseCrc = Storage.readSnapshot(storage.path(), tasks);
+            rotated.replay(tasks, baseCrc);
+            rotated.seal(baseCrc, storage.forcesWrites());
+            storage.replaceSnapshot(tasks, format, storage.forcesWrites());
+            rotated.delete(); // if a crash undoes this, the seal makes load skip the file
+        } catch (IOException e) {
+            System.err.println("[okuke.storage.Storage] Compaction failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package okuke.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import okuke.task.Task;
+
+/**
+ * Gzip-compressed text snapshot: the ordinary text format run through a
+ * {@link java.util.zip.Deflater}, recognized by the gzip magic bytes or, for a new
+ * file, by the {@value #EXTENSION} extension. Task archives are very repetitive, so
+ * this typically shrinks them several-fold.
+ *
+ * <p>Reading streams the {@link java.util.zip.Inflater} output straight into the
+ * line decoder; the uncompressed text is never held in memory as a whole.</p>
+ */
+final class CompressedFormat {
+    static final String EXTENSION = ".gz";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private CompressedFormat() { /* utility */ }
+
+    /**
+     * Checks whether the file starts with the gzip magic bytes.
+     *
+     * @param file the data file to inspect
+     * @return {@code true} if the file is gzip-compressed
+     * @throws IOException if the file exists but cannot be read
+     */
+    static boolean isCompressed(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < 2) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            int b0 = in.read();
+            int b1 = in.read();
+            return (b0 | (b1 << 8)) == GZIPInputStream.GZIP_MAGIC;
+        }
+    }
+
+    /**
+     * Writes all tasks to {@code file} as compressed text, replacing its contents.
+     *
+     * @param file  the file to write
+     * @param tasks the tasks to encode
+     * @param level deflate level, 0-9, or {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, List<Task> tasks, int level) throws IOException {
+        try (OutputStream out = new LeveledGzipOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE), level)) {
+            Storage.writeLines(out, tasks);
+        }
+    }
+
+    /**
+     * Decompresses and decodes every line of {@code file} into {@code out}.
+     * Corrupted lines are reported and skipped, as for plain text.
+     *
+     * @param file the compressed snapshot to read
+     * @param out  receives the decoded tasks in file order
+     * @return CRC32 over the raw (compressed) file bytes
+     * @throws IOException if the file cannot be read or is not valid gzip or UTF-8
+     */
+    static long read(Path file, List<Task> out) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream raw = new CheckedInputStream(Files.newInputStream(file), crc);
+             BufferedReader br = new BufferedReader(new InputStreamReader(
+                     new GZIPInputStream(raw, BUFFER_SIZE), StandardCharsets.UTF_8.newDecoder()))) {
+            Storage.readLines(br, out);
+            // Drain so the CRC covers the whole file, as it does for text snapshots.
+            raw.transferTo(OutputStream.nullOutputStream());
+        }
+        return crc.getValue();
+    }
+
+    /** {@link GZIPOutputStream} whose deflater uses the given level instead of the default. */
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
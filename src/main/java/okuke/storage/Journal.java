@@ -0,0 +1,297 @@
+package okuke.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import okuke.task.Task;
+
+/**
+ * Append-only log of {@link Mutation}s stored next to the snapshot file.
+ * Each record is a single line:
+ * <pre>
+ *   A | T | 0 | read book      (add, followed by the snapshot line of the task)
+ *   M | 3                      (mark task 3)
+ *   U | 3                      (unmark task 3)
+ *   X | 3                      (delete task 3)
+ *   B | 2864158215             (base: CRC32 of the snapshot the records above apply to)
+ * </pre>
+ * Replaying the journal on top of the last snapshot reproduces the current list.
+ *
+ * <p>Records after the last base record apply to whatever snapshot is on disk. A base
+ * record seals the records before it: they are replayed only on top of the snapshot
+ * it names. A journal is sealed right before the snapshot it was written against is
+ * replaced, by a full save or by the {@link Compactor}, so a crash between that
+ * rename and the removal of the journal cannot replay records the new snapshot
+ * already contains.</p>
+ *
+ * <p>A record counts only once its line terminator is on disk. A last line without
+ * one was cut off by a crash mid-append; it is dropped and cut from the file on
+ * replay, so a shortened index, name or base CRC is never taken for a whole one.</p>
+ */
+final class Journal {
+    private static final String SEP = " | ";
+    private static final String ADD = "A";
+    private static final String MARK = "M";
+    private static final String UNMARK = "U";
+    private static final String DELETE = "X";
+    private static final String BASE = "B";
+
+    private final Path path;
+    private final StorageStats stats;
+    private int records;
+    private long bytes;
+
+    Journal(Path path, StorageStats stats) {
+        this.path = path;
+        this.stats = stats;
+    }
+
+    Path path() { return path; }
+
+    int records() { return records; }
+
+    long bytes() { return bytes; }
+
+    boolean exists() { return Files.exists(path); }
+
+    /**
+     * Appends encoded records with a single write, optionally forcing them to disk.
+     *
+     * @param lines records from {@link #encode(List)}, in order
+     * @param force whether to fsync the journal before returning
+     * @throws IOException if the journal cannot be written
+     */
+    void append(List<String> lines, boolean force) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (String record : lines) {
+            sb.append(record).append(System.lineSeparator());
+        }
+        ByteBuffer buf = StandardCharsets.UTF_8.encode(CharBuffer.wrap(sb));
+        int written = buf.remaining();
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            if (force) {
+                stats.fsync(ch, false);
+            }
+        }
+        stats.addBytes(written);
+        records += lines.size();
+        bytes += written;
+    }
+
+    /**
+     * Returns whether the journal file holds anything.
+     *
+     * @return {@code true} if the file exists and is not empty
+     * @throws IOException if the file size cannot be read
+     */
+    boolean hasRecords() throws IOException {
+        return Files.exists(path) && Files.size(path) > 0;
+    }
+
+    /**
+     * Appends a base record binding every record so far to one snapshot.
+     *
+     * @param snapshotCrc CRC32 of the snapshot the records were written against
+     * @param force       whether to fsync the journal before returning; must be set if
+     *                    the snapshot will be replaced with a forced rename
+     * @throws IOException if the journal cannot be written
+     */
+    void seal(long snapshotCrc, boolean force) throws IOException {
+        ByteBuffer buf = StandardCharsets.UTF_8.encode(BASE + SEP + snapshotCrc + System.lineSeparator());
+        int written = buf.remaining();
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            if (force) {
+                stats.fsync(ch, false);
+            }
+        }
+        stats.addBytes(written);
+        bytes += written;
+    }
+
+    /**
+     * Applies the journal records, in order, to the given snapshot contents.
+     * Corrupted records or records pointing at missing tasks are reported and skipped.
+     * Records sealed by a base record that names a different snapshot were already
+     * folded into that snapshot and are not applied. An unterminated last record is
+     * reported and truncated away.
+     *
+     * @param tasks       the tasks loaded from the snapshot; mutated in place
+     * @param snapshotCrc CRC32 of the snapshot {@code tasks} were loaded from
+     * @return {@code false} if the journal has records but none apply to this snapshot,
+     *         so it may be deleted; otherwise {@code true}
+     * @throws IOException if the journal exists but cannot be read
+     */
+    boolean replay(List<Task> tasks, long snapshotCrc) throws IOException {
+        records = 0;
+        bytes = 0;
+        if (!Files.exists(path)) {
+            return true;
+        }
+        List<String> lines = readCompleteLines();
+        String base = String.valueOf(snapshotCrc);
+        LineDecoder decoder = new LineDecoder();
+        boolean stale = false;
+        boolean live = false;
+        int segmentStart = 0; // first line not yet covered by a base record
+        for (int i = 0; i <= lines.size(); i++) {
+            String trimmed = i < lines.size() ? lines.get(i).trim() : null;
+            boolean sealed = trimmed != null && trimmed.startsWith(BASE + SEP);
+            if (trimmed != null && !sealed) {
+                continue;
+            }
+            // Lines [segmentStart, i) are one segment: sealed by line i, or the unsealed tail.
+            boolean applies = !sealed || base.equals(trimmed.substring(BASE.length() + SEP.length()));
+            for (int j = segmentStart; j < i; j++) {
+                String record = lines.get(j).trim();
+                if (record.isEmpty()) continue;
+                records++;
+                if (!applies) {
+                    stale = true;
+                    continue;
+                }
+                live = true;
+                if (!apply(record, tasks, decoder)) {
+                    System.err.println("[okuke.storage.Storage] Skipped corrupted journal record "
+                            + (j + 1) + ": " + record);
+                }
+            }
+            segmentStart = i + 1;
+        }
+        bytes = Files.size(path);
+        return live || !stale;
+    }
+
+    /** Reads the terminated lines, cutting an unterminated last one off the file. */
+    private List<String> readCompleteLines() throws IOException {
+        byte[] content = Files.readAllBytes(path);
+        int end = content.length;
+        while (end > 0 && content[end - 1] != '\n' && content[end - 1] != '\r') {
+            end--;
+        }
+        if (end < content.length) {
+            String torn = new String(content, end, content.length - end, StandardCharsets.UTF_8);
+            System.err.println("[okuke.storage.Storage] Dropped incomplete journal record: " + torn.trim());
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                ch.truncate(end);
+            }
+        }
+        return new String(content, 0, end, StandardCharsets.UTF_8).lines().toList();
+    }
+
+    /**
+     * Moves this journal aside so a fresh one can be started at the same path.
+     *
+     * @param target where the current records should go
+     * @throws IOException if the rename fails
+     */
+    void moveTo(Path target) throws IOException {
+        Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+        records = 0;
+        bytes = 0;
+    }
+
+    /**
+     * Removes the journal file entirely.
+     *
+     * @throws IOException if the file exists but cannot be deleted
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+        records = 0;
+        bytes = 0;
+    }
+
+    /**
+     * Encodes mutations as journal records. The line of an added task is taken now,
+     * so later changes to that task cannot leak into the record.
+     *
+     * @param changes the mutations, in order
+     * @return one record line per mutation
+     */
+    static List<String> encode(List<Mutation> changes) {
+        List<String> records = new ArrayList<>(changes.size());
+        for (Mutation change : changes) {
+            records.add(encode(change));
+        }
+        return records;
+    }
+
+    private static String encode(Mutation change) {
+        switch (change.getKind()) {
+            case ADD:
+                return ADD + SEP + Storage.formatLine(change.getTask());
+            case MARK:
+                return MARK + SEP + change.getIndexOneBased();
+            case UNMARK:
+                return UNMARK + SEP + change.getIndexOneBased();
+            case DELETE:
+                return DELETE + SEP + change.getIndexOneBased();
+            default:
+                throw new IllegalArgumentException("Unknown mutation: " + change.getKind());
+        }
+    }
+
+    /**
+     * Applies one journal record to {@code tasks}.
+     *
+     * @return {@code false} if the record is corrupted and was not applied
+     */
+    private static boolean apply(String record, List<Task> tasks, LineDecoder decoder) {
+        int sep = record.indexOf(SEP);
+        if (sep < 0) return false;
+        String kind = record.substring(0, sep);
+        String body = record.substring(sep + SEP.length());
+
+        if (ADD.equals(kind)) {
+            Task t = decoder.decode(body);
+            if (t == null) return false;
+            tasks.add(t);
+            return true;
+        }
+
+        int index;
+        try {
+            index = Integer.parseInt(body.trim());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (index < 1 || index > tasks.size()) return false;
+
+        switch (kind) {
+            case MARK: {
+                Task t = tasks.get(index - 1);
+                t.setMark();
+                tasks.set(index - 1, t); // compact and lazy lists only keep tasks written back
+                return true;
+            }
+            case UNMARK: {
+                Task t = tasks.get(index - 1);
+                t.unMark();
+                tasks.set(index - 1, t);
+                return true;
+            }
+            case DELETE:
+                tasks.remove(index - 1);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package okuke.storage;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+
+import okuke.task.Deadline;
+import okuke.task.Event;
+import okuke.task.Task;
+import okuke.task.Todo;
+
+/**
+ * Single-pass decoder for the text snapshot format.
+ *
+ * <p>Accepts exactly what {@link Storage#parseLine(String)} accepts, without regex
+ * splitting, intermediate strings or exceptions: separators are located by index,
+ * and ISO dates ({@code yyyy-MM-dd} or {@code yyyy-MM-dd'T'HH:mm[:ss[.fffffffff]]})
+ * are read straight from the digits and range-checked by hand. The only string
+ * created per line is the task name itself. An instance reuses its field-offset
+ * buffers, so keep one per thread.</p>
+ */
+final class LineDecoder {
+    /** A line has at most five fields (Event), so at most four separators matter. */
+    private static final int MAX_FIELDS = 5;
+    private static final int MAX_YEAR = 999_999_999;
+
+    // Field i spans [starts[i], ends[i]); reused across lines.
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+
+    /**
+     * Returns whether {@code s} consists only of characters that {@link String#trim()} removes.
+     *
+     * @param s the line to check
+     * @return {@code true} if the line is blank
+     */
+    static boolean isBlank(CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes one line into a task.
+     *
+     * @param s one line of task data, trimmed or not
+     * @return the decoded task, or {@code null} if the line is corrupted
+     */
+    Task decode(CharSequence s) {
+        int from = 0;
+        int to = s.length();
+        while (from < to && s.charAt(from) <= ' ') from++;
+        while (to > from && s.charAt(to - 1) <= ' ') to--;
+
+        // Separators are any whitespace, '|', any whitespace.
+        int fields = 0;
+        int fieldStart = from;
+        int i = from;
+        while (i + 2 < to) {
+            if (isRegexSpace(s.charAt(i)) && s.charAt(i + 1) == '|' && isRegexSpace(s.charAt(i + 2))) {
+                if (fields == MAX_FIELDS) return null;
+                starts[fields] = fieldStart;
+                ends[fields] = i;
+                fields++;
+                i += 3;
+                fieldStart = i;
+            } else {
+                i++;
+            }
+        }
+        if (fields == MAX_FIELDS) return null;
+        starts[fields] = fieldStart;
+        ends[fields] = to;
+        fields++;
+        // Like String.split, trailing empty fields do not count.
+        while (fields > 0 && starts[fields - 1] == ends[fields - 1]) fields--;
+        if (fields < 3) return null;
+
+        if (ends[0] - starts[0] != 1) return null;
+        char type = s.charAt(starts[0]);
+        boolean done = ends[1] - starts[1] == 1 && s.charAt(starts[1]) == '1';
+
+        Task t;
+        switch (type) {
+            case 'T': {
+                if (fields != 3) return null;
+                t = new Todo(s.subSequence(starts[2], ends[2]).toString());
+                break;
+            }
+            case 'D': {
+                if (fields != 4) return null;
+                LocalDateTime by = parseIsoDateOrDateTime(s, starts[3], ends[3]);
+                if (by == null) return null;
+                t = new Deadline(s.subSequence(starts[2], ends[2]).toString(), by);
+                break;
+            }
+            case 'E': {
+                if (fields != 5) return null;
+                LocalDateTime start = parseIsoDateOrDateTime(s, starts[3], ends[3]);
+                LocalDateTime end = parseIsoDateOrDateTime(s, starts[4], ends[4]);
+                if (start == null || end == null) return null;
+                t = new Event(s.subSequence(starts[2], ends[2]).toString(), start, end);
+                break;
+            }
+            default:
+                return null;
+        }
+        if (done) t.setMark();
+        return t;
+    }
+
+    /** Matches the regex class {@code \s}: space, tab, newline, vertical tab, form feed, carriage return. */
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    /**
+     * Parses {@code s[from, to)} (trimmed first) as an ISO local date-time or an ISO local date.
+     *
+     * @return the parsed value (start of day for a bare date), or {@code null} if invalid
+     */
+    static LocalDateTime parseIsoDateOrDateTime(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') from++;
+        while (to > from && s.charAt(to - 1) <= ' ') to--;
+
+        // Year: 4 digits unsigned, '-' with 4-10 digits, or '+' with 5-10 digits.
+        int i = from;
+        char sign = 0;
+        if (i < to && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+            sign = s.charAt(i);
+            i++;
+        }
+        int digitsStart = i;
+        long year = 0;
+        while (i < to && isDigit(s.charAt(i)) && i - digitsStart < 10) {
+            year = year * 10 + (s.charAt(i) - '0');
+            i++;
+        }
+        int yearDigits = i - digitsStart;
+        if (sign == 0 && yearDigits != 4) return null;
+        if (sign == '+' && (yearDigits <= 4 || yearDigits > 10)) return null;
+        if (sign == '-' && (yearDigits < 4 || yearDigits > 10 || year == 0)) return null;
+        if (year > MAX_YEAR) return null;
+        if (sign == '-') year = -year;
+
+        if (i + 6 > to || s.charAt(i) != '-' || s.charAt(i + 3) != '-') return null;
+        int month = twoDigits(s, i + 1);
+        int day = twoDigits(s, i + 4);
+        i += 6;
+        if (month < 1 || month > 12 || day < 1) return null;
+        if (day > lengthOfMonth((int) year, month)) return null;
+
+        if (i == to) {
+            return LocalDateTime.of((int) year, month, day, 0, 0);
+        }
+
+        // Time: 'T' (any case), HH:mm, optional :ss, optional fraction after seconds.
+        if (s.charAt(i) != 'T' && s.charAt(i) != 't') return null;
+        if (i + 6 > to || s.charAt(i + 3) != ':') return null;
+        int hour = twoDigits(s, i + 1);
+        int minute = twoDigits(s, i + 4);
+        i += 6;
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) return null;
+
+        int second = 0;
+        int nano = 0;
+        if (i < to) {
+            if (i + 3 > to || s.charAt(i) != ':') return null;
+            second = twoDigits(s, i + 1);
+            i += 3;
+            if (second < 0 || second > 59) return null;
+            if (i < to) {
+                if (s.charAt(i) != '.') return null;
+                i++;
+                int fractionDigits = 0;
+                while (i < to && isDigit(s.charAt(i))) {
+                    if (fractionDigits == 9) return null;
+                    nano = nano * 10 + (s.charAt(i) - '0');
+                    fractionDigits++;
+                    i++;
+                }
+                if (i != to) return null;
+                for (int k = fractionDigits; k < 9; k++) nano *= 10;
+            }
+        }
+        return LocalDateTime.of((int) year, month, day, hour, minute, second, nano);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /** Reads two ASCII digits at {@code at}, or returns -1 if either is not a digit. */
+    private static int twoDigits(CharSequence s, int at) {
+        char a = s.charAt(at);
+        char b = s.charAt(at + 1);
+        if (!isDigit(a) || !isDigit(b)) return -1;
+        return (a - '0') * 10 + (b - '0');
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return Year.isLeap(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package okuke.storage;
+
+import okuke.task.Task;
+
+/**
+ * A single change to the task list, recorded in the storage journal.
+ * Each mutation maps to one small appended record, so persisting it costs
+ * the same no matter how many tasks are in the list.
+ */
+public final class Mutation {
+
+    /** The kinds of change a journal record can describe. */
+    public enum Kind { ADD, MARK, UNMARK, DELETE }
+
+    private final Kind kind;
+    private final int indexOneBased;
+    private final Task task;
+
+    private Mutation(Kind kind, int indexOneBased, Task task) {
+        this.kind = kind;
+        this.indexOneBased = indexOneBased;
+        this.task = task;
+    }
+
+    /**
+     * Creates a record for a task appended to the end of the list.
+     *
+     * @param task the task that was added
+     * @return the add mutation
+     */
+    public static Mutation added(Task task) {
+        assert task != null : "added task cannot be null";
+        return new Mutation(Kind.ADD, 0, task);
+    }
+
+    /**
+     * Creates a record for a task marked as done.
+     *
+     * @param indexOneBased position of the task, starting at 1
+     * @return the mark mutation
+     */
+    public static Mutation marked(int indexOneBased) {
+        return new Mutation(Kind.MARK, indexOneBased, null);
+    }
+
+    /**
+     * Creates a record for a task marked as not done.
+     *
+     * @param indexOneBased position of the task, starting at 1
+     * @return the unmark mutation
+     */
+    public static Mutation unmarked(int indexOneBased) {
+        return new Mutation(Kind.UNMARK, indexOneBased, null);
+    }
+
+    /**
+     * Creates a record for a task removed from the list.
+     *
+     * @param indexOneBased position the task had before removal, starting at 1
+     * @return the delete mutation
+     */
+    public static Mutation deleted(int indexOneBased) {
+        return new Mutation(Kind.DELETE, indexOneBased, null);
+    }
+
+    public Kind getKind() { return kind; }
+
+    public int getIndexOneBased() { return indexOneBased; }
+
+    /**
+     * Returns the added task, or {@code null} for non-add mutations.
+     *
+     * @return the task carried by an add record
+     */
+    public Task getTask() { return task; }
+}
@@ -0,0 +1,334 @@
+package okuke.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import okuke.task.Task;
+
+/**
+ * A task list backed by a text snapshot that decodes tasks only when they are read.
+ *
+ * <p>Opening the file costs one pass that records the byte offset of every valid
+ * line; only those offsets stay on the heap, as one {@code long} per page plus one
+ * {@code int} per record. Reading a task decodes the page of
+ * {@value #PAGE_SIZE} records around it, and at most {@code maxPages} decoded pages
+ * are cached, least recently used first out. Iterating the whole list therefore
+ * streams through the file in bounded memory.</p>
+ *
+ * <p>Tasks passed to {@link #set(int, Task)} or {@link #add(int, Task)} are pinned in
+ * memory, since a cached copy may be evicted at any time: mutate a task, then write it
+ * back with {@code set}. Deleting a pinned task frees its pin for the next one, so
+ * the pins never outnumber the pinned tasks still in the list. The file stays open for
+ * the life of the list, so a later atomic replace of the snapshot does not disturb it
+ * on platforms that keep unlinked files readable. Windows refuses to replace a file
+ * that is open, so {@link Storage#loadLazy()} does not use this list there.</p>
+ */
+final class PagedTaskList extends AbstractList<Task> implements RandomAccess {
+    static final int PAGE_SIZE = 1024;
+    static final int DEFAULT_MAX_PAGES = Integer.getInteger("okuke.storage.lazyPages", 64);
+
+    private static final int SCAN_BUFFER = 64 * 1024;
+
+    private final FileChannel ch;
+    // Record r starts at pageBases[r / PAGE_SIZE] + pageOffsets[r / PAGE_SIZE][r % PAGE_SIZE].
+    private final long[] pageBases;
+    private final int[][] pageOffsets;
+    private final int records;
+    private final long fileEnd;
+    private final int maxPages;
+    private final Map<Integer, Task[]> pages;
+    private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder();
+    private final LineDecoder decoder = new LineDecoder();
+    private CharBuffer chars = CharBuffer.allocate(256);
+
+    // Slot i of the list: a record number (>= 0), or -(k + 1) for pinned.get(k).
+    // Null until the first change, while slot i is simply record i.
+    private int[] slots;
+    private int size;
+    private final List<Task> pinned = new ArrayList<>();
+    private int[] freePins = new int[16]; // indices of pinned that deleted tasks left empty
+    private int freePinCount;
+
+    private PagedTaskList(FileChannel ch, long[] pageBases, int[][] pageOffsets, int records,
+            long fileEnd, int maxPages) {
+        this.ch = ch;
+        this.pageBases = pageBases;
+        this.pageOffsets = pageOffsets;
+        this.records = records;
+        this.fileEnd = fileEnd;
+        this.maxPages = maxPages;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Task[]> eldest) {
+                return size() > PagedTaskList.this.maxPages;
+            }
+        };
+        this.size = records;
+    }
+
+    /**
+     * Indexes a text snapshot without keeping its tasks. Corrupted lines are reported
+     * to stderr and skipped, exactly as a full load would.
+     *
+     * @param file     the text snapshot to open
+     * @param maxPages how many decoded pages to keep cached
+     * @return the lazily decoded list
+     * @throws IOException if the file cannot be read or is not valid UTF-8
+     */
+    static PagedTaskList open(Path file, int maxPages) throws IOException {
+        assert maxPages > 0 : "cache must hold at least one page";
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new Indexer(ch).run(maxPages);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index, size);
+        int slot = slot(index);
+        if (slot < 0) {
+            return pinned.get(-slot - 1);
+        }
+        Task[] page = pages.get(slot / PAGE_SIZE);
+        if (page == null) {
+            page = readPage(slot / PAGE_SIZE);
+            pages.put(slot / PAGE_SIZE, page);
+        }
+        return page[slot % PAGE_SIZE];
+    }
+
+    @Override
+    public Task set(int index, Task t) {
+        assert t != null : "cannot store null task";
+        Task old = get(index);
+        int slot = slot(index);
+        if (slot < 0) {
+            pinned.set(-slot - 1, t);
+        } else {
+            slots()[index] = pin(t);
+        }
+        return old;
+    }
+
+    @Override
+    public void add(int index, Task t) {
+        assert t != null : "cannot add null task";
+        checkIndex(index, size + 1);
+        slots();
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(16, size * 2));
+        }
+        System.arraycopy(slots, index, slots, index + 1, size - index);
+        slots[index] = pin(t);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task old = get(index);
+        int slot = slot(index);
+        if (slot < 0) {
+            unpin(-slot - 1);
+        }
+        slots();
+        System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+        size--;
+        modCount++;
+        return old;
+    }
+
+    private int slot(int index) {
+        return slots == null ? index : slots[index];
+    }
+
+    private int[] slots() {
+        if (slots == null) {
+            slots = new int[size];
+            for (int i = 0; i < size; i++) {
+                slots[i] = i;
+            }
+        }
+        return slots;
+    }
+
+    private long start(int record) {
+        return pageBases[record / PAGE_SIZE] + pageOffsets[record / PAGE_SIZE][record % PAGE_SIZE];
+    }
+
+    private int pin(Task t) {
+        if (freePinCount > 0) {
+            int k = freePins[--freePinCount];
+            pinned.set(k, t);
+            return -(k + 1);
+        }
+        pinned.add(t);
+        return -pinned.size();
+    }
+
+    private void unpin(int k) {
+        pinned.set(k, null);
+        if (freePinCount == freePins.length) {
+            freePins = Arrays.copyOf(freePins, freePinCount * 2);
+        }
+        freePins[freePinCount++] = k;
+    }
+
+    /** Number of pin slots allocated, live or free; for tests. */
+    int pinCapacity() {
+        return pinned.size();
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+
+    /** Decodes the records of one page with a single read. */
+    private Task[] readPage(int page) {
+        int first = page * PAGE_SIZE;
+        int last = Math.min(first + PAGE_SIZE, records);
+        long from = start(first);
+        long to = last < records ? start(last) : fileEnd;
+        ByteBuffer buf = ByteBuffer.allocate((int) (to - from));
+        try {
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, from + buf.position()) < 0) {
+                    throw new IOException("Data file shrank while it was open");
+                }
+            }
+            Task[] tasks = new Task[last - first];
+            for (int r = first; r < last; r++) {
+                int lineStart = (int) (start(r) - from);
+                int lineEnd = lineStart;
+                while (lineEnd < buf.limit() && buf.get(lineEnd) != '\n' && buf.get(lineEnd) != '\r') {
+                    lineEnd++;
+                }
+                Task t = decoder.decode(decodeUtf8(buf.slice(lineStart, lineEnd - lineStart)));
+                if (t == null) {
+                    throw new IOException("Data file changed while it was open");
+                }
+                tasks[r - first] = t;
+            }
+            return tasks;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CharBuffer decodeUtf8(ByteBuffer bytes) throws CharacterCodingException {
+        // A UTF-8 byte never yields more than one char.
+        if (chars.capacity() < bytes.remaining()) {
+            chars = CharBuffer.allocate(bytes.remaining());
+        }
+        chars.clear();
+        utf8.reset();
+        CoderResult r = utf8.decode(bytes, chars, true);
+        if (!r.isUnderflow()) r.throwException();
+        r = utf8.flush(chars);
+        if (!r.isUnderflow()) r.throwException();
+        return chars.flip();
+    }
+
+    /** One sequential pass over the file that keeps the offsets of lines that decode. */
+    private static final class Indexer {
+        private final FileChannel ch;
+        private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder();
+        private final LineDecoder decoder = new LineDecoder();
+        private long[] pageBases = new long[16];
+        private int[][] pageOffsets = new int[16][];
+        private int count;
+        private byte[] line = new byte[256];
+        private int lineLength;
+        private int lineno;
+
+        Indexer(FileChannel ch) {
+            this.ch = ch;
+        }
+
+        PagedTaskList run(int maxPages) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocate(SCAN_BUFFER);
+            long pos = 0;
+            long lineStart = 0;
+            boolean afterCr = false;
+            int n;
+            while ((n = ch.read(buf.clear(), pos)) > 0) {
+                for (int i = 0; i < n; i++, pos++) {
+                    byte b = buf.get(i);
+                    if (afterCr && b == '\n') {
+                        afterCr = false;
+                        lineStart = pos + 1;
+                        continue;
+                    }
+                    afterCr = b == '\r';
+                    if (b == '\n' || b == '\r') {
+                        endLine(lineStart);
+                        lineStart = pos + 1;
+                        continue;
+                    }
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, lineLength * 2);
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+            if (lineLength > 0) {
+                endLine(lineStart);
+            }
+            int pages = (count + PAGE_SIZE - 1) / PAGE_SIZE;
+            return new PagedTaskList(ch, Arrays.copyOf(pageBases, pages), Arrays.copyOf(pageOffsets, pages),
+                    count, pos, maxPages);
+        }
+
+        private void endLine(long lineStart) throws IOException {
+            lineno++;
+            String text = utf8.decode(ByteBuffer.wrap(line, 0, lineLength)).toString();
+            lineLength = 0;
+            if (LineDecoder.isBlank(text)) return;
+
+            if (decoder.decode(text) == null) {
+                System.err.println("[okuke.storage.Storage] Skipped corrupted line " + lineno + ": " + text.trim());
+                return;
+            }
+            int page = count / PAGE_SIZE;
+            if (count % PAGE_SIZE == 0) {
+                if (page == pageBases.length) {
+                    pageBases = Arrays.copyOf(pageBases, page * 2);
+                    pageOffsets = Arrays.copyOf(pageOffsets, page * 2);
+                }
+                pageBases[page] = lineStart;
+                pageOffsets[page] = new int[PAGE_SIZE];
+            }
+            long offset = lineStart - pageBases[page];
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Lines too long to index near offset " + lineStart);
+            }
+            pageOffsets[page][count % PAGE_SIZE] = (int) offset;
+            count++;
+        }
+    }
+}
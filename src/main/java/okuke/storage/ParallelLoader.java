@@ -0,0 +1,236 @@
+package okuke.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.CRC32;
+
+import okuke.task.Task;
+
+/**
+ * Loads large text snapshots by memory-mapping the file and decoding
+ * newline-aligned chunks on fork-join workers.
+ *
+ * <p>Chunks are joined back in file order, so the resulting list, the CRC and the
+ * "Skipped corrupted line N" reports are exactly what the serial reader in
+ * {@link Storage} produces. Lines end at {@code \n}, {@code \r} or {@code \r\n},
+ * just like {@link java.io.BufferedReader#readLine()}. A file that cannot be cut
+ * into chunks of at most {@value #MAX_CHUNK} bytes at line ends is handed to that
+ * serial reader instead.</p>
+ */
+final class ParallelLoader {
+    /** Text snapshots at least this large are loaded in parallel. */
+    static final long THRESHOLD_BYTES = Long.getLong("okuke.storage.parallelLoadBytes", 8L << 20);
+
+    private static final long MIN_CHUNK = 1L << 20;   // 1 MiB
+    private static final long MAX_CHUNK = 64L << 20;  // keeps each mapping well under 2 GiB
+    private static final int SCAN_BUFFER = 8 * 1024;
+
+    private ParallelLoader() { /* utility */ }
+
+    /**
+     * Decodes every line of a text snapshot into {@code out}.
+     *
+     * @param file the text snapshot to read
+     * @param out  receives the decoded tasks in file order
+     * @return CRC32 over the raw file bytes
+     * @throws IOException if the file cannot be read or is not valid UTF-8
+     */
+    static long read(Path file, List<Task> out) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(ch);
+            if (bounds == null) {
+                return Storage.readTextSerially(file, out);
+            }
+
+            List<DecodeChunk> workers = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                DecodeChunk w = new DecodeChunk(ch, bounds[i], bounds[i + 1]);
+                ForkJoinPool.commonPool().execute(w);
+                workers.add(w);
+            }
+
+            // Checksum on this thread while the workers decode.
+            CRC32 crc = new CRC32();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                crc.update(ch.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]));
+            }
+
+            int lineBase = 0;
+            for (DecodeChunk w : workers) {
+                Chunk c = w.join();
+                if (c.failure != null) {
+                    throw c.failure;
+                }
+                out.addAll(c.tasks);
+                for (int j = 0; j < c.badLines.size(); j++) {
+                    System.err.println("[okuke.storage.Storage] Skipped corrupted line "
+                            + (lineBase + c.badLineNumbers.get(j)) + ": " + c.badLines.get(j));
+                }
+                lineBase += c.lineCount;
+            }
+            return crc.getValue();
+        }
+    }
+
+    /**
+     * Splits the file into chunks that each end just after a line terminator (or at EOF).
+     *
+     * @return chunk start offsets followed by the file size, or {@code null} if some
+     *         line is too long to fit in one chunk
+     */
+    private static long[] chunkBounds(FileChannel ch) throws IOException {
+        long size = ch.size();
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        long target = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size / (parallelism * 4L)));
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long pos = target;
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER);
+        while (pos < size) {
+            long cut = nextLineStart(ch, pos, scan);
+            if (cut >= size) {
+                break;
+            }
+            if (cut - bounds.get(bounds.size() - 1) > MAX_CHUNK) {
+                return null;
+            }
+            bounds.add(cut);
+            pos = cut + target;
+        }
+        if (size - bounds.get(bounds.size() - 1) > MAX_CHUNK) {
+            return null;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the offset just past the first line terminator at or after {@code from},
+     * or the file size. A {@code \r} only ends a line there if no {@code \n} follows,
+     * so a {@code \r\n} pair is never split between two chunks.
+     */
+    private static long nextLineStart(FileChannel ch, long from, ByteBuffer scan) throws IOException {
+        long pos = from;
+        boolean afterCr = false; // the previous buffer ended in '\r'
+        while (true) {
+            scan.clear();
+            int n = ch.read(scan, pos);
+            if (n <= 0) {
+                return ch.size();
+            }
+            for (int i = 0; i < n; i++) {
+                byte b = scan.get(i);
+                if (afterCr) {
+                    return b == '\n' ? pos + i + 1 : pos + i;
+                }
+                if (b == '\n') {
+                    return pos + i + 1;
+                }
+                afterCr = b == '\r';
+            }
+            pos += n;
+        }
+    }
+
+    /** Decoded contents of one chunk, with line numbers relative to the chunk. */
+    private static final class Chunk {
+        final List<Task> tasks = new ArrayList<>();
+        final List<Integer> badLineNumbers = new ArrayList<>();
+        final List<String> badLines = new ArrayList<>();
+        int lineCount;
+        IOException failure;
+    }
+
+    private static final class DecodeChunk extends RecursiveTask<Chunk> {
+        private final FileChannel ch;
+        private final long start;
+        private final long end;
+
+        DecodeChunk(FileChannel ch, long start, long end) {
+            this.ch = ch;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Chunk compute() {
+            Chunk c = new Chunk();
+            try {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                LineReader reader = new LineReader();
+                int limit = buf.limit();
+                int lineStart = 0;
+                for (int i = 0; i < limit; i++) {
+                    byte b = buf.get(i);
+                    if (b != '\n' && b != '\r') continue;
+
+                    reader.decodeLine(c, buf, lineStart, i);
+                    if (b == '\r' && i + 1 < limit && buf.get(i + 1) == '\n') {
+                        i++;
+                    }
+                    lineStart = i + 1;
+                }
+                if (lineStart < limit) {
+                    reader.decodeLine(c, buf, lineStart, limit);
+                }
+            } catch (IOException e) {
+                c.failure = e;
+            }
+            return c;
+        }
+    }
+
+    /** Per-chunk decoding state: UTF-8 decoder, reusable char buffer and line decoder. */
+    private static final class LineReader {
+        private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder();
+        private final LineDecoder decoder = new LineDecoder();
+        private CharBuffer chars = CharBuffer.allocate(256);
+
+        void decodeLine(Chunk c, ByteBuffer buf, int from, int to) throws CharacterCodingException {
+            c.lineCount++;
+            CharBuffer line = decodeUtf8(buf.slice(from, to - from));
+            if (LineDecoder.isBlank(line)) return;
+
+            Task t = decoder.decode(line);
+            if (t != null) {
+                c.tasks.add(t);
+            } else {
+                c.badLineNumbers.add(c.lineCount);
+                c.badLines.add(line.toString().trim());
+            }
+        }
+
+        private CharBuffer decodeUtf8(ByteBuffer bytes) throws CharacterCodingException {
+            // A UTF-8 byte never yields more than one char.
+            if (chars.capacity() < bytes.remaining()) {
+                chars = CharBuffer.allocate(bytes.remaining());
+            }
+            chars.clear();
+            utf8.reset();
+            CoderResult r = utf8.decode(bytes, chars, true);
+            if (!r.isUnderflow()) r.throwException();
+            r = utf8.flush(chars);
+            if (!r.isUnderflow()) r.throwException();
+            return chars.flip();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package okuke.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Byte offsets of every record in a text snapshot, so that a single record can be
+ * patched or appended without rewriting the file.
+ *
+ * <p>Record {@code i} is the {@code i}-th task in the list; its line starts at
+ * {@link #start(int)} and its done flag is the byte at {@link #doneOffset(int)}.
+ * {@link #end()} is where the next appended line goes.</p>
+ */
+final class RecordIndex {
+    /** Bytes from the start of a canonical line to its done flag: {@code "T | "}. */
+    private static final int DONE_AT = 4;
+    private static final int SCAN_BUFFER = 64 * 1024;
+
+    private long[] starts = new long[16];
+    private int size;
+    private long end;
+
+    int size() { return size; }
+
+    long end() { return end; }
+
+    long start(int i) {
+        assert i >= 0 && i < size : "record index out of range";
+        return starts[i];
+    }
+
+    long doneOffset(int i) {
+        return start(i) + DONE_AT;
+    }
+
+    /**
+     * Records a line written at the current end of the file.
+     *
+     * @param length bytes of the line including its terminator
+     */
+    void add(long length) {
+        append(end);
+        end += length;
+    }
+
+    /**
+     * Builds the index of an existing text snapshot.
+     *
+     * <p>Returns {@code null} unless the file holds exactly {@code expected} records,
+     * each in the canonical {@code "X | d | ..."} form written by {@link Storage},
+     * and ends with a line terminator. Blank lines are skipped, as on load.</p>
+     *
+     * @param file     the text snapshot to scan
+     * @param expected number of tasks that were loaded from it
+     * @return the index, or {@code null} if the file cannot be patched in place
+     * @throws IOException if the file cannot be read
+     */
+    static RecordIndex scan(Path file, int expected) throws IOException {
+        RecordIndex index = new RecordIndex();
+        ByteBuffer buf = ByteBuffer.allocate(SCAN_BUFFER);
+        long pos = 0;
+        long lineStart = 0;
+        int column = 0;
+        boolean blank = true;
+        boolean canonical = true;
+        boolean afterCr = false;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            int n;
+            while ((n = ch.read(buf.clear(), pos)) > 0) {
+                for (int i = 0; i < n; i++, pos++) {
+                    byte b = buf.get(i);
+                    if (afterCr && b == '\n') {
+                        afterCr = false;
+                        lineStart = pos + 1;
+                        continue;
+                    }
+                    afterCr = b == '\r';
+                    if (b == '\n' || b == '\r') {
+                        if (!blank) {
+                            if (!canonical || column <= DONE_AT + 1) return null;
+                            index.append(lineStart);
+                        }
+                        lineStart = pos + 1;
+                        column = 0;
+                        blank = true;
+                        canonical = true;
+                        continue;
+                    }
+                    if ((b & 0xFF) > ' ') blank = false;
+                    if (column <= DONE_AT + 1) canonical &= isCanonicalAt(column, b);
+                    column++;
+                }
+            }
+        }
+        // A last line without terminator would be glued to the next append.
+        if (column > 0 || index.size != expected) {
+            return null;
+        }
+        index.end = pos;
+        return index;
+    }
+
+    /** Whether byte {@code b} fits column {@code column} of a canonical {@code "X | d "} prefix. */
+    private static boolean isCanonicalAt(int column, byte b) {
+        switch (column) {
+            case 0:
+                return (b & 0xFF) > ' ';
+            case 2:
+                return b == '|';
+            case DONE_AT:
+                return b == '0' || b == '1';
+            default:
+                return b == ' ';
+        }
+    }
+
+    private void append(long start) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+        }
+        starts[size++] = start;
+    }
+}
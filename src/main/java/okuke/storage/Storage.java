@@ -1,46 +1,225 @@
 package okuke.storage;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
 
 import okuke.exception.OkukeException;
 import okuke.task.Deadline;
 import okuke.task.Event;
 import okuke.task.Task;
+import okuke.task.TaskList;
 import okuke.task.Todo;
 
 /**
  * Handles persistence of tasks to and from a UTF-8 text file on disk.
  * Provides robust loading (skips/flags corrupted lines) and lossless saving
  * using a simple, line-oriented format.
+ *
+ * <p>In journal mode (system property {@code okuke.storage.journal=true}), single
+ * changes are appended to {@code <data file>.journal} instead of rewriting the whole
+ * file, and {@link #load()} replays that journal on top of the last full snapshot.
+ * Once the journal grows past a size or record-count threshold, a background
+ * {@link Compactor} folds it into a fresh snapshot so startup replay stays bounded.</p>
+ *
+ * <p>The snapshot is the text format, the {@link BinaryFormat} or the gzip-compressed
+ * {@link CompressedFormat}; the format is detected from the file header on load (or
+ * from a {@code .gz} extension for a new file) and kept for later saves until
+ * {@link #convert(List, Format)} switches it. {@code okuke.storage.compressionLevel}
+ * sets the deflate level. The journal is always text.</p>
+ *
+ * <p>With {@code okuke.storage.writeWindowMs} set, saves are handed to a
+ * {@link StorageWriter} thread that merges all requests arriving within that window
+ * into one write; {@link #flush()} waits for it. {@code okuke.storage.durability}
+ * ({@code none}, {@code per-batch} or {@code per-command}) sets the fsync policy;
+ * {@link #getStats()} reports the bytes written and the time spent in fsync.</p>
+ *
+ * <p>Saving a {@link TaskList} writes only what changed since its last save when the
+ * text snapshot still mirrors it: marks flip one byte in place and new tasks are
+ * appended, using a {@link RecordIndex} of line offsets. Deletes, binary snapshots
+ * and pending journal records fall back to a full rewrite. The terminator of the last
+ * appended line is written last, and loading cuts off an unterminated last line, so
+ * an append torn by a crash is dropped rather than read as a shortened task.</p>
+ *
+ * <p>In lazy mode ({@code okuke.storage.lazy=true}), {@link #loadLazy()} indexes the
+ * text snapshot instead of decoding it, and tasks are decoded page by page as they
+ * are read.</p>
  */
 public class Storage {
+
+    /** On-disk snapshot formats. */
+    public enum Format { TEXT, BINARY, GZIP }
+
+    /** How hard a save tries to reach the disk before the command moves on. */
+    public enum Durability { NONE, PER_BATCH, PER_COMMAND }
+
     private static final String FILE_PATH = "./src/data/OKuke.txt";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
     private static final String SEP = " | ";
+    private static final long UNKNOWN_CRC = -1;
+    // Windows cannot rename over a file that is open, which a lazy list keeps its snapshot.
+    private static final boolean REPLACE_NEEDS_CLOSED_FILE =
+            System.getProperty("os.name", "").startsWith("Windows");
 
     private static final DateTimeFormatter ISO_DT = DateTimeFormatter.ISO_LOCAL_DATE_TIME; // yyyy-MM-ddTHH:mm:ss[.SSS]
     private static final DateTimeFormatter ISO_D  = DateTimeFormatter.ISO_LOCAL_DATE;      // yyyy-MM-dd
 
     private final Path path;
+    private final StorageStats stats = new StorageStats();
+    private final Journal journal;
+    private final Compactor compactor;
+    private boolean journaled;
+    private boolean lazy;
+    private Format format;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private Durability durability = Durability.NONE;
+    private StorageWriter writer;
+    // Line offsets of the text snapshot while it equals the last saved list; null when unknown.
+    private volatile RecordIndex index;
+    // Set by load() when the snapshot alone holds the loaded list, so the index may be scanned.
+    private volatile boolean indexOnDemand;
+    // CRC32 of the snapshot file as last read; UNKNOWN_CRC once it may have changed.
+    private volatile long snapshotCrc = UNKNOWN_CRC;
 
     /**
      * Constructs a new {@code Storage} bound to the configured file path.
      * Ensures parent directories exist and prepares for load/save operations.
      */
     public Storage() {
-        this.path = Paths.get(FILE_PATH).normalize();
+        this(Paths.get(FILE_PATH));
+        this.journaled = Boolean.getBoolean("okuke.storage.journal");
+        this.lazy = Boolean.getBoolean("okuke.storage.lazy");
+        setCompressionLevel(Integer.getInteger("okuke.storage.compressionLevel", Deflater.DEFAULT_COMPRESSION));
+        this.compactor.setThresholds(
+                Integer.getInteger("okuke.storage.compactRecords", Compactor.DEFAULT_MAX_RECORDS),
+                Long.getLong("okuke.storage.compactBytes", Compactor.DEFAULT_MAX_BYTES));
+        this.durability = parseDurability(System.getProperty("okuke.storage.durability", "none"));
+        Long windowMillis = Long.getLong("okuke.storage.writeWindowMs");
+        if (windowMillis != null) {
+            startWriter(windowMillis, durability);
+        }
+    }
+
+    /**
+     * Constructs a new {@code Storage} bound to the given data file.
+     * Journal mode is off until enabled with {@link #setJournaled(boolean)}.
+     *
+     * @param path location of the snapshot file
+     */
+    public Storage(Path path) {
+        this.path = path.normalize();
+        this.format = this.path.toString().endsWith(CompressedFormat.EXTENSION) ? Format.GZIP : Format.TEXT;
+        this.journal = new Journal(Paths.get(this.path + JOURNAL_SUFFIX), stats);
+        this.compactor = new Compactor(this, journal);
+    }
+
+    /**
+     * Turns journal mode on or off. When on, {@link #record(List, Mutation)} appends
+     * a single record instead of rewriting the snapshot.
+     *
+     * @param journaled whether mutations should be journaled
+     */
+    public void setJournaled(boolean journaled) {
+        this.journaled = journaled;
     }
 
+    public boolean isJournaled() { return journaled; }
+
+    /**
+     * Turns lazy loading on or off. When on, {@link #loadLazy()} keeps only record
+     * offsets on the heap and decodes tasks page by page as they are read.
+     *
+     * @param lazy whether to load lazily
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    public boolean isLazy() { return lazy; }
+
+    /**
+     * Sets the deflate level used when writing {@link Format#GZIP} snapshots.
+     *
+     * @param level 0 (store only) to 9 (smallest), or {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public void setCompressionLevel(int level) {
+        assert level == Deflater.DEFAULT_COMPRESSION || (level >= 0 && level <= 9) : "invalid compression level";
+        this.compressionLevel = level;
+    }
+
+    /**
+     * Returns the running byte and fsync counters for this storage.
+     *
+     * @return live statistics, updated as saves happen
+     */
+    public StorageStats getStats() { return stats; }
+
+    Path path() { return path; }
+
+    /**
+     * Sets the fsync policy for synchronous saves. Has no effect on a running writer,
+     * which keeps the level it was started with.
+     *
+     * @param durability {@code NONE} to never fsync, otherwise fsync after every write
+     */
+    public void setDurability(Durability durability) {
+        assert durability != null : "durability cannot be null";
+        this.durability = durability;
+    }
+
+    /**
+     * Moves all later saves onto a dedicated writer thread that group-commits
+     * every request arriving within {@code windowMillis} of the first one.
+     *
+     * @param windowMillis how long to gather requests before writing
+     * @param durability   fsync policy for the writer
+     */
+    public void startWriter(long windowMillis, Durability durability) {
+        assert writer == null : "writer already started";
+        this.durability = durability;
+        this.writer = new StorageWriter(this, windowMillis, durability);
+    }
+
+    /**
+     * Blocks until every save requested so far has been written.
+     * A no-op when saves are synchronous.
+     *
+     * @throws java.io.IOException if a pending write failed
+     */
+    public void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Returns the snapshot format used by the next save.
+     *
+     * @return the current snapshot format
+     */
+    public Format getFormat() { return format; }
+
     private void ensureExists() throws IOException {
         Path parent = path.getParent();
         if (parent != null) {
@@ -57,6 +236,7 @@ public class Storage {
      *   <li>Creates the data file if the parent directory is present but the file is missing.</li>
      *   <li>Parses each line into {@link okuke.task.Task} subtypes (Todo/Deadline/Event).</li>
      *   <li>Silently skips lines that are obviously corrupted/unparseable.</li>
+     *   <li>Replays the journal, if one exists, on top of the snapshot.</li>
      * </ul>
      *
      * @return a mutable {@code List<Task>} representing all loaded tasks
@@ -64,53 +244,626 @@ public class Storage {
      * @throws okuke.exception.OkukeException.DataFileMissingException if the data file path does not exist
      */
     public List<Task> load() throws IOException, OkukeException.DataFileMissingException {
+        return load(new ArrayList<>());
+    }
+
+    /**
+     * Loads tasks like {@link #load()}, decoding them straight into {@code tasks},
+     * e.g. a compact list from {@link okuke.task.TaskList.Backing#newList()}.
+     *
+     * @param tasks an empty list to fill; must support {@code add}, {@code remove} and {@code set}
+     * @return {@code tasks}, holding all loaded tasks
+     * @throws java.io.IOException if the file cannot be read
+     * @throws okuke.exception.OkukeException.DataFileMissingException if the data file path does not exist
+     */
+    public List<Task> load(List<Task> tasks) throws IOException, OkukeException.DataFileMissingException {
         assert FILE_PATH != null : "FILE_PATH must be set";
-        List<Task> tasks = new ArrayList<>();
+        assert tasks.isEmpty() : "load into an empty list";
 
         if (!Files.exists(path)) {
             ensureExists();
             throw new OkukeException.DataFileMissingException(path.toString());
         }
 
-        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
-            String line;
-            int lineno = 0;
-            while ((line = br.readLine()) != null) {
-                lineno++;
-                String trimmed = line.trim();
-                if (trimmed.isEmpty()) continue;
+        format = detectFormat(path);
+        if (format == Format.TEXT) {
+            dropTornAppend();
+        }
+        long crc = readSnapshot(path, tasks);
+        compactor.recover(tasks, crc);
+        if (!journal.replay(tasks, crc)) {
+            journal.delete(); // sealed to an older snapshot; appending to it would revive it
+        }
+        snapshotCrc = crc;
+        index = null;
+        indexOnDemand = format == Format.TEXT && journal.bytes() == 0 && !compactor.hasRotated();
+        return tasks;
+    }
 
-                Task t = parseLine(trimmed);
-                if (t != null) {
-                    tasks.add(t);
-                } else {
-                    System.err.println("[okuke.storage.Storage] Skipped corrupted line " + lineno + ": " + trimmed);
-                }
-            }
+    /**
+     * Loads tasks like {@link #load()}, but in lazy mode returns a list that decodes
+     * tasks from the text snapshot on demand through a bounded page cache, so huge
+     * files open quickly in a small heap. Changes must be written back with
+     * {@code set} (see {@link okuke.task.TaskList#markOneBased(int)}).
+     *
+     * <p>Falls back to {@link #load()} when lazy mode is off, the snapshot is binary,
+     * or journal records still have to be replayed on top of it. It also does on
+     * Windows, where the open snapshot would make every later full save fail.</p>
+     *
+     * @return a mutable list of all loaded tasks; wrap it with
+     *         {@link okuke.task.TaskList#backedBy(List)} to avoid copying it
+     * @throws java.io.IOException if the file cannot be read
+     * @throws okuke.exception.OkukeException.DataFileMissingException if the data file path does not exist
+     */
+    public List<Task> loadLazy() throws IOException, OkukeException.DataFileMissingException {
+        if (!lazy || REPLACE_NEEDS_CLOSED_FILE || !Files.exists(path) || detectFormat(path) != Format.TEXT
+                || (journal.exists() && Files.size(journal.path()) > 0) || compactor.hasRotated()) {
+            return load();
         }
+        format = Format.TEXT;
+        snapshotCrc = UNKNOWN_CRC;
+        dropTornAppend();
+        PagedTaskList tasks = PagedTaskList.open(path, PagedTaskList.DEFAULT_MAX_PAGES);
+        index = null;
+        indexOnDemand = true;
         return tasks;
     }
 
     /**
-     * Persists the provided tasks to disk, overwriting the existing file.
+     * Persists the provided tasks to disk, replacing the existing file.
      * Uses a stable, line-based format compatible with {@link #load()}.
+     * The new contents go to a temp file that is renamed over the data file with
+     * {@code ATOMIC_MOVE}, so a crash mid-save leaves the old file intact.
+     * Any journal records are folded into the new snapshot and the journal is emptied.
      *
      * @param tasks the tasks to serialize
      * @throws java.io.IOException if the file cannot be written
      */
     public void save(List<Task> tasks) throws IOException {
+        if (writer != null) {
+            // The command thread keeps mutating the list, so hand the writer its own copy.
+            writer.submitSnapshot(new ArrayList<>(tasks), format);
+            return;
+        }
+        writeFull(tasks, format, forcesWrites());
+    }
+
+    /**
+     * Persists the changes made to {@code tasks} since its last save, then marks it saved.
+     * When the text snapshot on disk still matches that last save, changed records
+     * are patched in place and new ones appended; otherwise this is {@link #save(List)}.
+     *
+     * @param tasks the task list to persist
+     * @throws java.io.IOException if the file cannot be written
+     */
+    public void save(TaskList tasks) throws IOException {
+        if (writer != null) {
+            // The command thread keeps mutating the list; the writer reads a snapshot.
+            writer.submitSnapshot(tasks.snapshot(), format);
+        } else if (!patch(tasks.asList(), tasks.changesSinceSave())) {
+            writeFull(tasks.asList(), format, forcesWrites());
+        }
+        tasks.markSaved();
+    }
+
+    /**
+     * Persists a single change. In journal mode this appends one record, which costs
+     * the same regardless of list size; otherwise it falls back to {@link #save(List)}.
+     *
+     * @param tasks  the full task list after the change (used for the fallback)
+     * @param change the change that was just applied to {@code tasks}
+     * @throws java.io.IOException if the journal or data file cannot be written
+     */
+    public void record(List<Task> tasks, Mutation change) throws IOException {
+        if (!journaled) {
+            save(tasks);
+            return;
+        }
+        List<String> records = Journal.encode(List.of(change));
+        if (writer != null) {
+            writer.submitRecords(records);
+            return;
+        }
+        appendRecords(records, forcesWrites());
+    }
+
+    /**
+     * Persists a single change made to {@code tasks}, then marks it saved. In journal
+     * mode this appends one record; otherwise it is {@link #save(TaskList)}.
+     *
+     * @param tasks  the task list after the change
+     * @param change the change that was just applied to {@code tasks}
+     * @throws java.io.IOException if the journal or data file cannot be written
+     */
+    public void record(TaskList tasks, Mutation change) throws IOException {
+        if (!journaled) {
+            save(tasks);
+            return;
+        }
+        record(tasks.asList(), change);
+        tasks.markSaved();
+    }
+
+    /**
+     * Persists a batch of changes made to {@code tasks} with one write, then marks
+     * them saved. In journal mode the records are appended together, in order;
+     * otherwise it is {@link #save(TaskList)}.
+     *
+     * @param tasks   the task list after the changes
+     * @param changes the changes that were just applied to {@code tasks}, in order
+     * @throws java.io.IOException if the journal or data file cannot be written
+     */
+    public void record(TaskList tasks, List<Mutation> changes) throws IOException {
+        if (!journaled) {
+            save(tasks);
+            return;
+        }
+        List<String> records = Journal.encode(changes);
+        if (writer != null) {
+            writer.submitRecords(records);
+        } else {
+            appendRecords(records, forcesWrites());
+        }
+        tasks.markSaved();
+    }
+
+    /**
+     * Writes only the records that changed since the last save into the text snapshot.
+     *
+     * @return {@code false} if the snapshot cannot be patched and needs a full rewrite
+     */
+    private boolean patch(List<Task> tasks, TaskList.Changes changes) throws IOException {
+        int savedSize = changes.getSavedSize();
+        if (changes.isRestructured() || format != Format.TEXT || savedSize > tasks.size()) {
+            return false;
+        }
+        RecordIndex idx = index;
+        if (idx == null && indexOnDemand) {
+            indexOnDemand = false;
+            idx = RecordIndex.scan(path, savedSize);
+        }
+        if (idx == null || idx.size() != savedSize) {
+            return false;
+        }
+
+        byte[] newline = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        List<byte[]> appended = new ArrayList<>();
+        for (int i = savedSize; i < tasks.size(); i++) {
+            String encoded = formatLine(tasks.get(i));
+            if (encoded == null) {
+                return false; // would leave a hole in the offsets
+            }
+            appended.add(encoded.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Unknown until the writes below have all succeeded.
+        index = null;
+        snapshotCrc = UNKNOWN_CRC;
+        long written = 0;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            BitSet changed = changes.getChanged();
+            ByteBuffer flag = ByteBuffer.allocate(1);
+            for (int i = changed.nextSetBit(0); i >= 0 && i < savedSize; i = changed.nextSetBit(i + 1)) {
+                flag.clear();
+                flag.put(0, (byte) ("X".equals(tasks.get(i).getStatus()) ? '1' : '0'));
+                written += writeFully(ch, flag, idx.doneOffset(i));
+            }
+            if (!appended.isEmpty()) {
+                ByteBuffer tail = ByteBuffer.allocate(appendedLength(appended, newline));
+                for (byte[] line : appended) {
+                    tail.put(line).put(newline);
+                }
+                // The last byte commits the records: until it is on disk, load cuts them off.
+                tail.flip().limit(tail.limit() - 1);
+                written += writeFully(ch, tail, idx.end());
+                if (forcesWrites()) {
+                    stats.fsync(ch, false);
+                }
+                tail.limit(tail.capacity());
+                written += writeFully(ch, tail, idx.end() + tail.position());
+            }
+            if (forcesWrites()) {
+                stats.fsync(ch, false);
+            }
+        }
+        stats.addBytes(written);
+        for (byte[] line : appended) {
+            idx.add(line.length + newline.length);
+        }
+        index = idx;
+        return true;
+    }
+
+    /**
+     * Cuts an unterminated last line off the text snapshot. Every save ends each line
+     * with a terminator, and {@link #patch} writes the one after appended records last,
+     * so such a line is an append cut short by a crash and would decode as a task with
+     * part of its name.
+     */
+    private void dropTornAppend() throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            long end = size; // just past the last terminator, once found
+            ByteBuffer buf = ByteBuffer.allocate(8192);
+            boolean found = false;
+            while (end > 0 && !found) {
+                long from = Math.max(0, end - buf.capacity());
+                buf.clear().limit((int) (end - from));
+                while (buf.hasRemaining()) {
+                    if (ch.read(buf, from + buf.position()) < 0) {
+                        break;
+                    }
+                }
+                int i = buf.position();
+                while (i > 0 && buf.get(i - 1) != '\n' && buf.get(i - 1) != '\r') {
+                    i--;
+                }
+                found = i > 0;
+                end = from + i;
+            }
+            if (end == size) {
+                return;
+            }
+            ByteBuffer torn = ByteBuffer.allocate((int) Math.min(size - end, 200));
+            ch.read(torn, end);
+            System.err.println("[okuke.storage.Storage] Dropped incomplete last line: "
+                    + new String(torn.array(), 0, torn.position(), StandardCharsets.UTF_8).trim());
+            ch.truncate(end);
+        }
+    }
+
+    private static int appendedLength(List<byte[]> lines, byte[] newline) {
+        int total = 0;
+        for (byte[] line : lines) {
+            total += line.length + newline.length;
+        }
+        return total;
+    }
+
+    private static int writeFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        int total = 0;
+        while (buf.hasRemaining()) {
+            total += ch.write(buf, position + total);
+        }
+        return total;
+    }
+
+    /**
+     * Writes a full snapshot and removes the journals it covers. Pending journal
+     * records are first sealed to the snapshot being replaced, so a crash right after
+     * the rename skips them instead of replaying them on top of the new snapshot.
+     * The order on disk is seal, rename, then delete; with {@code force} each step is
+     * durable before the next, and the directory is synced again after the delete.
+     *
+     * @param tasks  the tasks to write
+     * @param format the snapshot format to use
+     * @param force  whether to fsync the seals, the snapshot and the journal removal
+     * @throws IOException if the file cannot be written
+     */
+    void writeFull(List<Task> tasks, Format format, boolean force) throws IOException {
         ensureExists();
-        try (BufferedWriter bw = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
-            for (Task t : tasks) {
-                String encoded = formatLine(t);
-                if (encoded != null) {
-                    bw.write(encoded);
-                    bw.newLine();
+        compactor.awaitIdle();
+        index = null;
+        indexOnDemand = false;
+        boolean hadJournal = journal.hasRecords() || compactor.hasRotated();
+        sealJournals(force);
+        RecordIndex written = replaceSnapshot(tasks, format, force);
+        compactor.discardRotated();
+        journal.delete();
+        if (force && hadJournal) {
+            forceDirectory();
+        }
+        index = written;
+    }
+
+    /**
+     * Binds the live and any rotated journal to the snapshot currently on disk.
+     *
+     * @param force whether to fsync the seals
+     * @throws IOException if the snapshot cannot be read or a journal cannot be written
+     */
+    void sealJournals(boolean force) throws IOException {
+        boolean live = journal.hasRecords();
+        if (!live && !compactor.hasRotated()) {
+            return;
+        }
+        long crc = snapshotCrc;
+        if (crc == UNKNOWN_CRC) {
+            crc = crcOf(path);
+        }
+        if (live) {
+            journal.seal(crc, force);
+        }
+        compactor.sealRotated(crc, force);
+    }
+
+    /** CRC32 of the raw bytes of {@code file}, as returned by {@link #readSnapshot}. */
+    private static long crcOf(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = new CheckedInputStream(Files.newInputStream(file), crc)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Atomically replaces the snapshot: writes a temp file in the same directory,
+     * optionally forces it, then renames it over the data file. If anything fails
+     * before the rename the temp file is removed and the old snapshot is untouched.
+     *
+     * @param tasks  the tasks to write
+     * @param format the snapshot format to use
+     * @param force  whether to fsync the temp file and the directory entry
+     * @return line offsets of the new text snapshot, or {@code null} for other formats
+     * @throws IOException if the file cannot be written or renamed
+     */
+    RecordIndex replaceSnapshot(List<Task> tasks, Format format, boolean force) throws IOException {
+        Path temp = Paths.get(path + TEMP_SUFFIX);
+        snapshotCrc = UNKNOWN_CRC;
+        RecordIndex written;
+        try {
+            written = writeSnapshot(temp, tasks, format, compressionLevel);
+            stats.addBytes(Files.size(temp));
+            if (force) {
+                try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    stats.fsync(ch, true);
                 }
             }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        if (force) {
+            forceDirectory();
+        }
+        return written;
+    }
+
+    boolean forcesWrites() {
+        return durability != Durability.NONE;
+    }
+
+    // Makes the rename itself durable. Not every platform can open a directory; skip there.
+    private void forceDirectory() {
+        Path dir = path.getParent();
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            stats.fsync(ch, true);
+        } catch (IOException ignore) {
+            // e.g. Windows: directories cannot be opened as channels
+        }
+    }
+
+    /**
+     * Appends journal records with one write and starts compaction if needed.
+     *
+     * @param records the encoded mutations to append, in order
+     * @param force   whether to fsync the journal
+     * @throws IOException if the journal cannot be written
+     */
+    void appendRecords(List<String> records, boolean force) throws IOException {
+        ensureExists();
+        index = null; // the snapshot alone no longer holds the list
+        indexOnDemand = false;
+        journal.append(records, force);
+        compactor.maybeStart();
+    }
+
+    private static Durability parseDurability(String raw) {
+        switch (raw.trim().toLowerCase()) {
+            case "per-batch":
+                return Durability.PER_BATCH;
+            case "per-command":
+                return Durability.PER_COMMAND;
+            default:
+                return Durability.NONE;
         }
     }
 
+    /**
+     * Rewrites the data file in the given format; later saves keep using it.
+     *
+     * @param tasks  the full task list to write
+     * @param target the snapshot format to switch to
+     * @throws java.io.IOException if the file cannot be written
+     */
+    public void convert(List<Task> tasks, Format target) throws IOException {
+        assert target != null : "target format cannot be null";
+        this.format = target;
+        save(tasks);
+    }
+
+    /**
+     * Rewrites the data file in the given format; later saves keep using it. Unlike
+     * {@link #convert(List, Format)}, a writer thread is handed a snapshot of the list,
+     * so the command thread may keep changing it.
+     *
+     * @param tasks  the task list to write
+     * @param target the snapshot format to switch to
+     * @throws java.io.IOException if the file cannot be written
+     */
+    public void convert(TaskList tasks, Format target) throws IOException {
+        assert target != null : "target format cannot be null";
+        this.format = target;
+        save(tasks);
+    }
+
+    /**
+     * Sets when the journal is handed to the background compactor.
+     * Compaction starts once either limit is reached.
+     *
+     * @param maxRecords journal records allowed before compacting
+     * @param maxBytes   journal size in bytes allowed before compacting
+     */
+    public void setCompactionThresholds(int maxRecords, long maxBytes) {
+        compactor.setThresholds(maxRecords, maxBytes);
+    }
+
+    /**
+     * Blocks until any running background compaction has finished.
+     * Foreground commands never need this; it exists for shutdown and tests.
+     */
+    public void awaitCompaction() {
+        compactor.awaitIdle();
+    }
+
+    /**
+     * Detects the snapshot format of {@code file} from its header.
+     * Missing or empty files count as text, unless named {@code *.gz}.
+     *
+     * @param file the snapshot to inspect
+     * @return the detected format
+     * @throws IOException if the file exists but cannot be read
+     */
+    static Format detectFormat(Path file) throws IOException {
+        if (BinaryFormat.isBinary(file)) {
+            return Format.BINARY;
+        }
+        if (CompressedFormat.isCompressed(file)) {
+            return Format.GZIP;
+        }
+        boolean empty = !Files.exists(file) || Files.size(file) == 0;
+        return empty && file.toString().endsWith(CompressedFormat.EXTENSION) ? Format.GZIP : Format.TEXT;
+    }
+
+    /**
+     * Reads a snapshot file in any format, appending each decoded task to {@code out}.
+     * Corrupted lines are reported to stderr and skipped. Large text files are
+     * handed to the {@link ParallelLoader}, which produces the same result.
+     *
+     * @param file the snapshot to read
+     * @param out  receives the decoded tasks in file order
+     * @return CRC32 of the raw file bytes, used to tell snapshots apart during compaction recovery
+     * @throws IOException if the file cannot be read
+     */
+    static long readSnapshot(Path file, List<Task> out) throws IOException {
+        switch (detectFormat(file)) {
+            case BINARY:
+                return BinaryFormat.read(file, out);
+            case GZIP:
+                return CompressedFormat.read(file, out);
+            default:
+                break;
+        }
+        if (Files.exists(file) && Files.size(file) >= ParallelLoader.THRESHOLD_BYTES) {
+            return ParallelLoader.read(file, out);
+        }
+        return readTextSerially(file, out);
+    }
+
+    /**
+     * Reads a text snapshot line by line on the calling thread.
+     *
+     * @param file the text snapshot to read
+     * @param out  receives the decoded tasks in file order
+     * @return CRC32 of the raw file bytes
+     * @throws IOException if the file cannot be read or is not valid UTF-8
+     */
+    static long readTextSerially(Path file, List<Task> out) throws IOException {
+        CRC32 crc = new CRC32();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new CheckedInputStream(Files.newInputStream(file), crc), StandardCharsets.UTF_8.newDecoder()))) {
+            readLines(br, out);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Decodes every line from {@code br} into {@code out}, reporting and skipping corrupted ones.
+     *
+     * @param br  text snapshot lines
+     * @param out receives the decoded tasks in order
+     * @throws IOException if reading fails
+     */
+    static void readLines(BufferedReader br, List<Task> out) throws IOException {
+        LineDecoder decoder = new LineDecoder();
+        String line;
+        int lineno = 0;
+        while ((line = br.readLine()) != null) {
+            lineno++;
+            if (LineDecoder.isBlank(line)) continue;
+
+            Task t = decoder.decode(line);
+            if (t != null) {
+                out.add(t);
+            } else {
+                System.err.println("[okuke.storage.Storage] Skipped corrupted line " + lineno + ": " + line.trim());
+            }
+        }
+    }
+
+    /**
+     * Writes every task to {@code file} in the given format, replacing its contents.
+     *
+     * @param file   the file to write
+     * @param tasks  the tasks to serialize
+     * @param format the snapshot format to use
+     * @return line offsets of a text snapshot, or {@code null} for other formats and
+     *         text snapshots that had to skip a task
+     * @throws IOException if the file cannot be written
+     */
+    static RecordIndex writeSnapshot(Path file, List<Task> tasks, Format format) throws IOException {
+        return writeSnapshot(file, tasks, format, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Writes every task to {@code file} in the given format, replacing its contents.
+     *
+     * @param file             the file to write
+     * @param tasks            the tasks to serialize
+     * @param format           the snapshot format to use
+     * @param compressionLevel deflate level for {@link Format#GZIP}
+     * @return line offsets of a text snapshot, or {@code null} for other formats and
+     *         text snapshots that had to skip a task
+     * @throws IOException if the file cannot be written
+     */
+    static RecordIndex writeSnapshot(Path file, List<Task> tasks, Format format, int compressionLevel)
+            throws IOException {
+        switch (format) {
+            case BINARY:
+                BinaryFormat.write(file, tasks);
+                return null;
+            case GZIP:
+                CompressedFormat.write(file, tasks, compressionLevel);
+                return null;
+            default:
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                    RecordIndex index = writeLines(out, tasks);
+                    return index.size() == tasks.size() ? index : null;
+                }
+        }
+    }
+
+    /**
+     * Writes one text line per task to {@code out}, skipping tasks of unknown type.
+     *
+     * @param out   where the UTF-8 lines go
+     * @param tasks the tasks to serialize
+     * @return offsets of the written lines relative to the start of {@code out}
+     * @throws IOException if writing fails
+     */
+    static RecordIndex writeLines(OutputStream out, List<Task> tasks) throws IOException {
+        RecordIndex index = new RecordIndex();
+        byte[] newline = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        for (Task t : tasks) {
+            String encoded = formatLine(t);
+            if (encoded != null) {
+                byte[] line = encoded.getBytes(StandardCharsets.UTF_8);
+                out.write(line);
+                out.write(newline);
+                index.add(line.length + newline.length);
+            }
+        }
+        return index;
+    }
+
     // ---------- encoding/decoding (self-contained) ----------
 
     /**
@@ -120,7 +873,7 @@ public class Storage {
      * @param t the task to encode
      * @return serialized single-line form of the task
      */
-    private String formatLine(Task t) {
+    static String formatLine(Task t) {
         String done = "X".equals(t.getStatus()) ? "1" : "0";
         if (t instanceof Todo) {
             return "T" + SEP + done + SEP + t.getTaskName();
@@ -141,10 +894,13 @@ public class Storage {
      * Recognizes Todo, Deadline (with "/by"), and Event (with "/from" and "/to").
      * Returns {@code null} for clearly corrupted lines so callers can skip them.
      *
+     * <p>This is the reference definition of the format. Loading goes through the
+     * faster {@link LineDecoder}, which must accept exactly the same lines.</p>
+     *
      * @param line one line of task data (without line terminator)
      * @return the parsed task, or {@code null} if the line is invalid
      */
-    private Task parseLine(String line) {
+    static Task parseLine(String line) {
         assert line != null : "line cannot be null";
         try {
             String[] parts = line.split("\\s\\|\\s"); // exact " | "
@@ -0,0 +1,50 @@
+package okuke.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals of what persistence has cost so far: bytes written to snapshot
+ * and journal files, and how many fsyncs were issued and how long they took.
+ * Safe to read from any thread while saves are in progress.
+ */
+public final class StorageStats {
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong fsyncCount = new AtomicLong();
+    private final AtomicLong fsyncNanos = new AtomicLong();
+
+    public long getBytesWritten() { return bytesWritten.get(); }
+
+    public long getFsyncCount() { return fsyncCount.get(); }
+
+    public long getFsyncNanos() { return fsyncNanos.get(); }
+
+    void addBytes(long n) {
+        bytesWritten.addAndGet(n);
+    }
+
+    /**
+     * Forces {@code ch} to disk and records the time it took.
+     *
+     * @param ch       the channel to force
+     * @param metaData whether file metadata must be written as well
+     * @throws IOException if the fsync fails
+     */
+    void fsync(FileChannel ch, boolean metaData) throws IOException {
+        long start = System.nanoTime();
+        try {
+            ch.force(metaData);
+        } finally {
+            fsyncNanos.addAndGet(System.nanoTime() - start);
+            fsyncCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getBytesWritten() + " bytes written, " + getFsyncCount() + " fsyncs taking "
+                + TimeUnit.NANOSECONDS.toMillis(getFsyncNanos()) + " ms";
+    }
+}
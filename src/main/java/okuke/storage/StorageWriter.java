@@ -0,0 +1,198 @@
+package okuke.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okuke.task.Task;
+
+/**
+ * Dedicated writer thread that group-commits save requests.
+ *
+ * <p>The first request starts a window; every request arriving before the window
+ * closes is merged into the same batch and written with one I/O pass. A full
+ * snapshot request supersedes every earlier pending journal record, and only the
+ * newest snapshot in a batch is written. How the batch reaches the disk is set by
+ * the {@link Storage.Durability} level:</p>
+ * <ul>
+ *   <li>{@code NONE}: written, never forced; callers return immediately.</li>
+ *   <li>{@code PER_BATCH}: forced once per batch; callers return immediately.</li>
+ *   <li>{@code PER_COMMAND}: forced, and each caller waits until its own change is
+ *       on disk. The window is skipped since someone is already waiting.</li>
+ * </ul>
+ * Nothing handed over is shared with the command thread: snapshots are immutable
+ * copies and journal records arrive already encoded.
+ */
+final class StorageWriter {
+    private final Storage storage;
+    private final long windowNanos;
+    private final Storage.Durability durability;
+    private final Thread thread;
+
+    // All fields below are guarded by "this".
+    private List<Task> pendingSnapshot;
+    private Storage.Format pendingFormat;
+    private List<String> pendingRecords = new ArrayList<>();
+    private long submitted;
+    private long completed;
+    private boolean urgent;
+    private long failedFrom = Long.MAX_VALUE;
+    private long failedTo = Long.MIN_VALUE;
+    private IOException failure;
+
+    StorageWriter(Storage storage, long windowMillis, Storage.Durability durability) {
+        assert windowMillis >= 0 : "window cannot be negative";
+        this.storage = storage;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.durability = durability;
+        this.thread = new Thread(this::run, "okuke-storage-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushQuietly, "okuke-storage-flush"));
+    }
+
+    /**
+     * Queues a full snapshot of {@code tasks}.
+     *
+     * @param tasks  a copy or snapshot of the list that nobody will mutate
+     * @param format the snapshot format to write
+     * @throws IOException if the durability level requires waiting and the write failed
+     */
+    void submitSnapshot(List<Task> tasks, Storage.Format format) throws IOException {
+        long seq;
+        synchronized (this) {
+            pendingSnapshot = tasks;
+            pendingFormat = format;
+            pendingRecords = new ArrayList<>(); // covered by the snapshot
+            seq = enqueued();
+        }
+        awaitIfRequired(seq);
+    }
+
+    /**
+     * Queues journal records, to be written together in the given order.
+     *
+     * @param records mutations encoded by {@link Journal#encode(List)} on the calling thread
+     * @throws IOException if the durability level requires waiting and the write failed
+     */
+    void submitRecords(List<String> records) throws IOException {
+        long seq;
+        synchronized (this) {
+            pendingRecords.addAll(records);
+            seq = enqueued();
+        }
+        awaitIfRequired(seq);
+    }
+
+    /**
+     * Writes everything queued so far and waits for it to finish.
+     *
+     * @throws IOException if any of the flushed writes failed
+     */
+    void flush() throws IOException {
+        long seq;
+        synchronized (this) {
+            seq = submitted;
+            urgent = true;
+            notifyAll();
+        }
+        await(seq);
+    }
+
+    private long enqueued() {
+        submitted++;
+        if (durability == Storage.Durability.PER_COMMAND) {
+            urgent = true;
+        }
+        notifyAll();
+        return submitted;
+    }
+
+    private void awaitIfRequired(long seq) throws IOException {
+        if (durability == Storage.Durability.PER_COMMAND) {
+            await(seq);
+        }
+    }
+
+    private synchronized void await(long seq) throws IOException {
+        boolean interrupted = false;
+        while (completed < seq) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null && seq >= failedFrom && seq <= failedTo) {
+            throw failure;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("[okuke.storage.Storage] Failed to save on exit: " + e.getMessage());
+        }
+    }
+
+    private void run() {
+        while (true) {
+            List<Task> snapshot;
+            Storage.Format format;
+            List<String> records;
+            long batchStart;
+            long batchEnd;
+            synchronized (this) {
+                try {
+                    while (submitted == completed) {
+                        wait();
+                    }
+                    long deadline = System.nanoTime() + windowNanos;
+                    long left;
+                    while (!urgent && (left = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, left);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                snapshot = pendingSnapshot;
+                format = pendingFormat;
+                records = pendingRecords;
+                pendingSnapshot = null;
+                pendingRecords = new ArrayList<>();
+                urgent = false;
+                batchStart = completed + 1;
+                batchEnd = submitted;
+            }
+
+            IOException error = null;
+            try {
+                boolean force = durability != Storage.Durability.NONE;
+                if (snapshot != null) {
+                    storage.writeFull(snapshot, format, force);
+                }
+                if (!records.isEmpty()) {
+                    storage.appendRecords(records, force);
+                }
+            } catch (IOException e) {
+                System.err.println("[okuke.storage.Storage] Failed to save: " + e.getMessage());
+                error = e;
+            }
+
+            synchronized (this) {
+                if (error != null) {
+                    failure = error;
+                    failedFrom = batchStart;
+                    failedTo = batchEnd;
+                }
+                completed = batchEnd;
+                notifyAll();
+            }
+        }
+    }
+}
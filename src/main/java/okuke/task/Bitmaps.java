@@ -0,0 +1,59 @@
+package okuke.task;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Helpers for {@link BitSet}s indexed by list position, which have to follow the
+ * list when a task is inserted or removed in the middle.
+ */
+final class Bitmaps {
+
+    private Bitmaps() { /* utility */ }
+
+    /**
+     * Returns {@code bits} with a bit inserted ({@code by == 1}) or removed ({@code by == -1})
+     * at {@code at}: every later bit moves one place up or down.
+     */
+    static BitSet shift(BitSet bits, int at, int by) {
+        if (bits.nextSetBit(at) < 0) {
+            return bits; // nothing at or after the edit point moves
+        }
+        long[] w = Arrays.copyOf(bits.toLongArray(), (bits.length() >>> 6) + 2);
+        int first = at >>> 6;
+        long below = (1L << (at & 63)) - 1; // bits of the first word that stay put
+        if (by > 0) {
+            for (int j = w.length - 1; j > first; j--) {
+                w[j] = (w[j] << 1) | (w[j - 1] >>> 63);
+            }
+            w[first] = (w[first] & below) | ((w[first] << 1) & ~below & ~(below + 1));
+        } else {
+            w[first] = (w[first] & below) | ((w[first] >>> 1) & ~below) | (w[first + 1] << 63);
+            for (int j = first + 1; j < w.length - 1; j++) {
+                w[j] = (w[j] >>> 1) | (w[j + 1] << 63);
+            }
+            w[w.length - 1] >>>= 1;
+        }
+        return BitSet.valueOf(w);
+    }
+
+    /**
+     * Returns {@code bits} with every position in {@code removed} deleted and the
+     * remaining bits closed up, in one pass over the set bits of both.
+     */
+    static BitSet removeAll(BitSet bits, BitSet removed) {
+        BitSet result = new BitSet();
+        int gone = 0; // removed positions below p
+        int nextGone = removed.nextSetBit(0);
+        for (int p = bits.nextSetBit(0); p >= 0; p = bits.nextSetBit(p + 1)) {
+            while (nextGone >= 0 && nextGone < p) {
+                gone++;
+                nextGone = removed.nextSetBit(nextGone + 1);
+            }
+            if (nextGone != p) {
+                result.set(p - gone);
+            }
+        }
+        return result;
+    }
+}
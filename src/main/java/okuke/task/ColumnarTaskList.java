@@ -0,0 +1,251 @@
+package okuke.task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A task list stored column by column instead of as one object per task:
+ * <ul>
+ *   <li>a {@code byte} type tag,</li>
+ *   <li>a {@link BitSet} of done flags,</li>
+ *   <li>two {@code long} columns of epoch seconds (a deadline's "by", or an event's
+ *       start and end), and</li>
+ *   <li>the names, UTF-8 encoded back to back in one shared byte arena.</li>
+ * </ul>
+ * That is about 30 bytes per task plus its name, against well over a hundred for the
+ * object graph of a {@link Deadline} or {@link Event}.
+ *
+ * <p>{@link #get(int)} builds a fresh {@link Task} from the columns on every call, so
+ * changes to a returned task must be written back with {@link #set(int, Task)}, as
+ * {@link TaskList#markOneBased(int)} does. Dates are kept to the second, which is
+ * finer than anything the parser or the snapshot formats produce.</p>
+ */
+final class ColumnarTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+
+    private byte[] types = new byte[16];
+    private long[] firstTimes = new long[16];
+    private long[] secondTimes = new long[16];
+    private int[] nameStarts = new int[16];
+    private int[] nameLengths = new int[16];
+    private BitSet done = new BitSet();
+    private int size;
+
+    private byte[] arena = new byte[256];
+    private int arenaEnd;
+    private int arenaGarbage; // bytes of names no longer referenced
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index, size);
+        String name = new String(arena, nameStarts[index], nameLengths[index], StandardCharsets.UTF_8);
+        Task t = switch (types[index]) {
+            case DEADLINE -> new Deadline(name, time(firstTimes[index]));
+            case EVENT -> new Event(name, time(firstTimes[index]), time(secondTimes[index]));
+            default -> new Todo(name);
+        };
+        if (done.get(index)) {
+            t.setMark();
+        }
+        return t;
+    }
+
+    @Override
+    public Task set(int index, Task t) {
+        Task old = get(index);
+        store(index, t, true);
+        return old;
+    }
+
+    @Override
+    public void add(int index, Task t) {
+        checkIndex(index, size + 1);
+        ensureCapacity(size + 1);
+        if (index < size) {
+            int tail = size - index;
+            System.arraycopy(types, index, types, index + 1, tail);
+            System.arraycopy(firstTimes, index, firstTimes, index + 1, tail);
+            System.arraycopy(secondTimes, index, secondTimes, index + 1, tail);
+            System.arraycopy(nameStarts, index, nameStarts, index + 1, tail);
+            System.arraycopy(nameLengths, index, nameLengths, index + 1, tail);
+            done = Bitmaps.shift(done, index, 1);
+        }
+        size++;
+        store(index, t, false);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task old = get(index);
+        arenaGarbage += nameLengths[index];
+        int tail = size - index - 1;
+        System.arraycopy(types, index + 1, types, index, tail);
+        System.arraycopy(firstTimes, index + 1, firstTimes, index, tail);
+        System.arraycopy(secondTimes, index + 1, secondTimes, index, tail);
+        System.arraycopy(nameStarts, index + 1, nameStarts, index, tail);
+        System.arraycopy(nameLengths, index + 1, nameLengths, index, tail);
+        done = Bitmaps.shift(done, index, -1);
+        size--;
+        compactArenaIfSparse();
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Removes the rows at {@code positions} and closes up the rest with one pass of
+     * block copies per column.
+     *
+     * @param positions zero-based rows to remove, all below {@link #size()}
+     * @return the removed tasks, in list order
+     */
+    List<Task> removeAll(BitSet positions) {
+        assert positions.length() <= size : "position out of range";
+        List<Task> removed = new ArrayList<>(positions.cardinality());
+        int to = positions.nextSetBit(0);
+        if (to < 0) {
+            return removed;
+        }
+        for (int p = to; p >= 0; p = positions.nextSetBit(p + 1)) {
+            removed.add(get(p));
+            arenaGarbage += nameLengths[p];
+        }
+        for (int gap = to; gap >= 0; ) {
+            int from = positions.nextClearBit(gap); // start of the next run of kept rows
+            int end = from < size ? positions.nextSetBit(from) : -1;
+            int run = (end < 0 ? size : end) - from;
+            if (run > 0) {
+                System.arraycopy(types, from, types, to, run);
+                System.arraycopy(firstTimes, from, firstTimes, to, run);
+                System.arraycopy(secondTimes, from, secondTimes, to, run);
+                System.arraycopy(nameStarts, from, nameStarts, to, run);
+                System.arraycopy(nameLengths, from, nameLengths, to, run);
+                to += run;
+            }
+            gap = end;
+        }
+        done = Bitmaps.removeAll(done, positions);
+        size = to;
+        compactArenaIfSparse();
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        done.clear();
+        arenaEnd = 0;
+        arenaGarbage = 0;
+        modCount++;
+    }
+
+    /** Writes {@code t} into row {@code index}; {@code replacing} if the row held a task before. */
+    private void store(int index, Task t, boolean replacing) {
+        assert t != null : "cannot store null task";
+        if (t instanceof Deadline d) {
+            types[index] = DEADLINE;
+            firstTimes[index] = seconds(d.getByDateTime());
+        } else if (t instanceof Event e) {
+            types[index] = EVENT;
+            firstTimes[index] = seconds(e.getStartDateTime());
+            secondTimes[index] = seconds(e.getEndDateTime());
+        } else if (t instanceof Todo) {
+            types[index] = TODO;
+        } else {
+            throw new IllegalArgumentException("Unsupported task type: " + t.getClass().getName());
+        }
+        done.set(index, "X".equals(t.getStatus()));
+
+        byte[] name = t.getTaskName().getBytes(StandardCharsets.UTF_8);
+        if (replacing) {
+            int start = nameStarts[index];
+            if (Arrays.equals(arena, start, start + nameLengths[index], name, 0, name.length)) {
+                return; // same name, e.g. a task written back after marking
+            }
+            arenaGarbage += nameLengths[index];
+        }
+        nameStarts[index] = appendName(name);
+        nameLengths[index] = name.length;
+    }
+
+    private int appendName(byte[] name) {
+        if (arenaEnd + name.length > arena.length) {
+            long wanted = Math.max(arena.length + ((long) arena.length >> 1), (long) arenaEnd + name.length);
+            if (wanted > Integer.MAX_VALUE - 8) {
+                compactArena();
+                wanted = (long) arenaEnd + name.length;
+                if (wanted > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Task names exceed 2 GB");
+                }
+            }
+            arena = Arrays.copyOf(arena, (int) wanted);
+        }
+        System.arraycopy(name, 0, arena, arenaEnd, name.length);
+        int start = arenaEnd;
+        arenaEnd += name.length;
+        return start;
+    }
+
+    private void compactArenaIfSparse() {
+        if (arenaGarbage > 4096 && arenaGarbage > arenaEnd / 2) {
+            compactArena();
+        }
+    }
+
+    /** Copies the live names, in list order, into a right-sized arena. */
+    private void compactArena() {
+        long live = 0;
+        for (int i = 0; i < size; i++) {
+            live += nameLengths[i];
+        }
+        byte[] packed = new byte[(int) Math.max(256, live + (live >> 2))];
+        int end = 0;
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(arena, nameStarts[i], packed, end, nameLengths[i]);
+            nameStarts[i] = end;
+            end += nameLengths[i];
+        }
+        arena = packed;
+        arenaEnd = end;
+        arenaGarbage = 0;
+    }
+
+    private void ensureCapacity(int wanted) {
+        if (wanted <= types.length) {
+            return;
+        }
+        int capacity = Math.max(wanted, types.length + (types.length >> 1));
+        types = Arrays.copyOf(types, capacity);
+        firstTimes = Arrays.copyOf(firstTimes, capacity);
+        secondTimes = Arrays.copyOf(secondTimes, capacity);
+        nameStarts = Arrays.copyOf(nameStarts, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+    }
+
+    private static long seconds(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime time(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package okuke.task;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Date lookups for a {@link TaskList}, keyed by task id (see {@link TaskIds}).
+ *
+ * <ul>
+ *   <li>Deadlines: a sorted map from the "by" day to the ids due that day.</li>
+ *   <li>Events: an interval treap ordered by start day, where every node also keeps
+ *       the latest end day in its subtree, so subtrees that end too early are skipped.</li>
+ *   <li>Timeline: a sorted map from each deadline's "by" and each event's start
+ *       date-time to ids, read in order for upcoming queries.</li>
+ *   <li>Open deadlines: the same for unfinished deadlines only, so overdue queries
+ *       never visit the done ones that pile up in the past.</li>
+ * </ul>
+ * Days are epoch days. All structures are updated exactly on add and remove, and
+ * the open deadlines also on {@link #setDone(int, Task, boolean)}.
+ */
+final class DateIndex {
+    private final TreeMap<Long, IdList> deadlines = new TreeMap<>();
+    private final TreeMap<LocalDateTime, IdList> timeline = new TreeMap<>();
+    private final TreeMap<LocalDateTime, IdList> openDeadlines = new TreeMap<>();
+    private final Random priorities = new Random(0x0C1E);
+    private Node events;
+
+    /**
+     * Indexes the dates of a task, if it has any.
+     *
+     * @param id the task's id
+     * @param t  the task
+     */
+    void add(int id, Task t) {
+        if (t instanceof Deadline d) {
+            deadlines.computeIfAbsent(day(d), k -> new IdList()).add(id);
+            timeline.computeIfAbsent(d.getByDateTime(), k -> new IdList()).add(id);
+            if (!"X".equals(d.getStatus())) {
+                openDeadlines.computeIfAbsent(d.getByDateTime(), k -> new IdList()).add(id);
+            }
+        } else if (t instanceof Event e) {
+            events = insert(events, new Node(startDay(e), endDay(e), id, priorities.nextInt()));
+            timeline.computeIfAbsent(e.getStartDateTime(), k -> new IdList()).add(id);
+        }
+    }
+
+    /**
+     * Removes a task that was indexed under {@code id}.
+     *
+     * @param id the task's id
+     * @param t  the task, whose dates must be unchanged since it was added
+     */
+    void remove(int id, Task t) {
+        if (t instanceof Deadline d) {
+            removeFrom(deadlines, day(d), id);
+            removeFrom(timeline, d.getByDateTime(), id);
+            removeFrom(openDeadlines, d.getByDateTime(), id);
+        } else if (t instanceof Event e) {
+            events = delete(events, startDay(e), id);
+            removeFrom(timeline, e.getStartDateTime(), id);
+        }
+    }
+
+    /**
+     * Records that a task was marked or unmarked.
+     *
+     * @param id   the task's id
+     * @param t    the task
+     * @param done its new status
+     */
+    void setDone(int id, Task t, boolean done) {
+        if (!(t instanceof Deadline d)) {
+            return;
+        }
+        if (done) {
+            removeFrom(openDeadlines, d.getByDateTime(), id);
+        } else {
+            openDeadlines.computeIfAbsent(d.getByDateTime(), k -> new IdList()).insert(id);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, IdList> map, K key, int id) {
+        IdList list = map.get(key);
+        if (list != null && list.remove(id) && list.size == 0) {
+            map.remove(key);
+        }
+    }
+
+    /**
+     * Returns the ids of deadlines due in {@code [fromDay, toDay]} and events overlapping it.
+     *
+     * @param fromDay first epoch day, inclusive
+     * @param toDay   last epoch day, inclusive
+     * @return matching ids in increasing order
+     */
+    int[] between(long fromDay, long toDay) {
+        IdList out = new IdList();
+        if (fromDay <= toDay) {
+            for (IdList due : deadlines.subMap(fromDay, true, toDay, true).values()) {
+                out.addAll(due);
+            }
+            overlapping(events, fromDay, toDay, out);
+        }
+        int[] ids = Arrays.copyOf(out.ids, out.size);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Visits ids on the timeline in time order, earliest first, until {@code visitor} returns false.
+     *
+     * @param from    earliest date-time to visit, inclusive; {@code null} for the very start
+     * @param before  date-time to stop at, exclusive; {@code null} for no limit
+     * @param visitor receives each id; returns {@code false} to stop
+     */
+    void forEachInTime(LocalDateTime from, LocalDateTime before, IntPredicate visitor) {
+        NavigableMap<LocalDateTime, IdList> range = timeline;
+        if (from != null) range = range.tailMap(from, true);
+        if (before != null) range = range.headMap(before, false);
+        for (IdList ids : range.values()) {
+            for (int i = 0; i < ids.size; i++) {
+                if (!visitor.test(ids.ids[i])) return;
+            }
+        }
+    }
+
+    /**
+     * Visits the ids of unfinished deadlines due before {@code before}, earliest first.
+     *
+     * @param before  date-time to stop at, exclusive
+     * @param visitor receives each id; returns {@code false} to stop
+     */
+    void forEachOpenDeadline(LocalDateTime before, IntPredicate visitor) {
+        for (IdList ids : openDeadlines.headMap(before, false).values()) {
+            for (int i = 0; i < ids.size; i++) {
+                if (!visitor.test(ids.ids[i])) return;
+            }
+        }
+    }
+
+    static long day(Deadline d) {
+        return d.getByDateTime().toLocalDate().toEpochDay();
+    }
+
+    static long startDay(Event e) {
+        return e.getStartDateTime().toLocalDate().toEpochDay();
+    }
+
+    static long endDay(Event e) {
+        return e.getEndDateTime().toLocalDate().toEpochDay();
+    }
+
+    // ---------- interval treap ----------
+
+    private static final class Node {
+        final long start;
+        final long end;
+        final int id;
+        final int priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(long start, long end, int id, int priority) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        int compareTo(long otherStart, int otherId) {
+            int c = Long.compare(start, otherStart);
+            return c != 0 ? c : Integer.compare(id, otherId);
+        }
+
+        void update() {
+            long m = end;
+            if (left != null && left.maxEnd > m) m = left.maxEnd;
+            if (right != null && right.maxEnd > m) m = right.maxEnd;
+            maxEnd = m;
+        }
+    }
+
+    private static Node insert(Node root, Node n) {
+        if (root == null) {
+            return n;
+        }
+        if (n.compareTo(root.start, root.id) < 0) {
+            root.left = insert(root.left, n);
+            if (root.left.priority > root.priority) root = rotateRight(root);
+        } else {
+            root.right = insert(root.right, n);
+            if (root.right.priority > root.priority) root = rotateLeft(root);
+        }
+        root.update();
+        return root;
+    }
+
+    private static Node delete(Node root, long start, int id) {
+        if (root == null) {
+            return null;
+        }
+        int c = root.compareTo(start, id);
+        if (c > 0) {
+            root.left = delete(root.left, start, id);
+        } else if (c < 0) {
+            root.right = delete(root.right, start, id);
+        } else {
+            return merge(root.left, root.right);
+        }
+        root.update();
+        return root;
+    }
+
+    /** Joins two treaps where every key in {@code a} is below every key in {@code b}. */
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        n.update();
+        l.update();
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        n.update();
+        r.update();
+        return r;
+    }
+
+    /** Collects the ids of intervals that overlap {@code [lo, hi]}. */
+    private static void overlapping(Node n, long lo, long hi, IdList out) {
+        while (n != null && n.maxEnd >= lo) {
+            overlapping(n.left, lo, hi, out);
+            if (n.start > hi) {
+                return; // everything to the right starts later still
+            }
+            if (n.end >= lo) {
+                out.add(n.id);
+            }
+            n = n.right;
+        }
+    }
+
+    /** Growable list of ids, in insertion (and so increasing) order. */
+    private static final class IdList {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void addAll(IdList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.ids[i]);
+            }
+        }
+
+        /** Adds {@code id} where it keeps the list in increasing order, unless it is already there. */
+        void insert(int id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i >= 0) {
+                return;
+            }
+            i = -i - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            ids[i] = id;
+            size++;
+        }
+
+        /** Removes {@code id}; relies on ids having been added in increasing order. */
+        boolean remove(int id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -30,13 +30,13 @@ public class Deadline extends Task {
     }
 
     /**
-     * Returns the display form for a Deadline.
+     * Builds the display form for a Deadline.
      * Example: "[D][ ] return book (by: Aug 06 2025 14:00)"
      *
      * @return formatted deadline string
      */
     @Override
-    public String toString() {
+    protected String render() {
         return "[D][" + getStatus() + "] " + getTaskName()
                 + " (by: " + DateTimeUtil.formatNice(by) + ")";
     }
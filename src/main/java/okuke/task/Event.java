@@ -42,13 +42,13 @@ public class Event extends Task {
     }
 
     /**
-     * Returns the display form for an Event.
+     * Builds the display form for an Event.
      * Example: "[E][X] project meeting (from: Aug 06 2025 14:00 to: Aug 06 2025 16:00)"
      *
      * @return formatted event string
      */
     @Override
-    public String toString() {
+    protected String render() {
         return "[E][" + getStatus() + "] " + getTaskName()
                 + " (from: " + DateTimeUtil.formatNice(startDate)
                 + " to: "   + DateTimeUtil.formatNice(endDate) + ")";
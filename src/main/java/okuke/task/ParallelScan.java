@@ -0,0 +1,97 @@
+package okuke.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Linear filters over a task list that run on the common {@link ForkJoinPool} once the
+ * list is large enough to be worth it.
+ *
+ * <p>The list is split in halves until segments are small enough for one worker, each
+ * segment is scanned by position, and the matches are concatenated back in list order,
+ * so callers see exactly what a sequential scan would return. The list must not be
+ * changed during the scan and must be safe to read from several threads, which rules
+ * out lazily decoded backings that fill caches on {@code get}.</p>
+ */
+final class ParallelScan {
+    /**
+     * Smallest list scanned in parallel: {@code -Dokuke.task.parallelThreshold}. Below
+     * it, forking costs more than it saves. The default is the only crossover measured
+     * so far, with {@code ParallelScanBenchmark} on a single core and an oversubscribed
+     * pool; with real cores it is likely lower, so re-run the benchmark and override it.
+     */
+    static final int DEFAULT_THRESHOLD = Integer.getInteger("okuke.task.parallelThreshold", 65_536);
+
+    /** Segments are never split below this, so each fork does a useful amount of work. */
+    private static final int MIN_SEGMENT = 4_096;
+
+    private ParallelScan() { }
+
+    /**
+     * Returns the tasks matching {@code match}, in list order.
+     *
+     * @param tasks     the list to scan
+     * @param match     the filter; called from pool threads when scanning in parallel
+     * @param threshold scan sequentially when {@code tasks} is smaller than this
+     * @return a new list of the matching tasks
+     */
+    static List<Task> filter(List<Task> tasks, Predicate<Task> match, int threshold) {
+        int size = tasks.size();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        if (size < threshold || size < 2 * MIN_SEGMENT || pool.getParallelism() < 2) {
+            List<Task> out = new ArrayList<>();
+            for (Task t : tasks) { // iterators are cheaper than get(i) on some backings
+                if (match.test(t)) {
+                    out.add(t);
+                }
+            }
+            return out;
+        }
+        int segment = Math.max(MIN_SEGMENT, size / (4 * pool.getParallelism()));
+        return pool.invoke(new Segment(tasks, match, 0, size, segment));
+    }
+
+    private static List<Task> scan(List<Task> tasks, Predicate<Task> match, int from, int to) {
+        List<Task> out = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Task t = tasks.get(i);
+            if (match.test(t)) {
+                out.add(t);
+            }
+        }
+        return out;
+    }
+
+    /** Scans {@code [from, to)}, forking the upper half while the range is above {@code segment}. */
+    private static final class Segment extends RecursiveTask<List<Task>> {
+        private final List<Task> tasks;
+        private final Predicate<Task> match;
+        private final int from;
+        private final int to;
+        private final int segment;
+
+        Segment(List<Task> tasks, Predicate<Task> match, int from, int to, int segment) {
+            this.tasks = tasks;
+            this.match = match;
+            this.from = from;
+            this.to = to;
+            this.segment = segment;
+        }
+
+        @Override
+        protected List<Task> compute() {
+            if (to - from <= segment) {
+                return scan(tasks, match, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            Segment upper = new Segment(tasks, match, mid, to, segment);
+            upper.fork();
+            List<Task> out = new Segment(tasks, match, from, mid, segment).compute();
+            out.addAll(upper.join()); // lower half first keeps list order
+            return out;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package okuke.task;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A list stored as a 32-way trie whose nodes can be shared with read-only snapshots.
+ *
+ * <p>{@link #snapshot()} hands out the current trie in O(1) and from then on treats
+ * every existing node as frozen: the next change to a position copies only the nodes
+ * on its path (at most a handful for any realistic size) and keeps editing those
+ * copies in place. A snapshot therefore never changes, needs no locking, and may be
+ * read from another thread once safely published, while this list keeps being
+ * mutated. Nodes not touched since the snapshot stay shared between the two.</p>
+ *
+ * <p>Appending and reading are O(log<sub>32</sub> n). Inserting or removing before the
+ * end shifts the later elements one leaf of 32 at a time, like an {@code ArrayList}.</p>
+ *
+ * @param <E> element type; {@code null} elements are allowed
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    /** Approximate heap size of one node with its slot array, compressed oops assumed. */
+    static final int NODE_BYTES = 24 + 16 + 4 * WIDTH;
+
+    /** Trie node: child nodes, or elements at the leaf level. */
+    private static final class Node {
+        /** Edit token of the vector allowed to change {@link #slots} in place. */
+        final Object owner;
+        final Object[] slots;
+
+        Node(Object owner, Object[] slots) {
+            this.owner = owner;
+            this.slots = slots;
+        }
+    }
+
+    private Object edit; // null for a read-only snapshot
+    private Node root;
+    private int shift; // BITS * (height - 1); 0 when the root is a leaf
+    private int size;
+    private long nodesCreated; // including copies, for memory estimates
+
+    PersistentVector() {
+        this.edit = new Object();
+        this.root = new Node(edit, new Object[WIDTH]);
+    }
+
+    private PersistentVector(Node root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    /**
+     * Returns a read-only list with the current contents, sharing this list's nodes.
+     * Later changes to this list copy what they touch and leave the snapshot as it is.
+     *
+     * @return an unmodifiable, never-changing view of the list as of now
+     */
+    PersistentVector<E> snapshot() {
+        if (edit == null) {
+            return this;
+        }
+        PersistentVector<E> frozen = new PersistentVector<>(root, shift, size);
+        edit = new Object(); // every node made so far now belongs to no one
+        return frozen;
+    }
+
+    /**
+     * Makes this list hold the contents of {@code frozen} in O(1), sharing its nodes.
+     * Later changes to this list copy what they touch, as after {@link #snapshot()}.
+     *
+     * @param frozen a snapshot of this or another vector
+     */
+    void restore(PersistentVector<E> frozen) {
+        checkWritable();
+        assert frozen.edit == null : "can only restore a snapshot";
+        root = frozen.root;
+        shift = frozen.shift;
+        size = frozen.size;
+        edit = new Object(); // so no node of frozen can be owned by this list
+        modCount++;
+    }
+
+    /**
+     * Returns how many nodes this list has created or copied so far. Between two
+     * snapshots, that is about how many nodes the older one no longer shares.
+     *
+     * @return the node count
+     */
+    long nodesCreated() { return nodesCreated; }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkIndex(index, size);
+        Node n = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            n = (Node) n.slots[(index >>> level) & MASK];
+        }
+        return (E) n.slots[index & MASK];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E value) {
+        checkIndex(index, size);
+        Object[] leaf = editableLeaf(index);
+        E old = (E) leaf[index & MASK];
+        leaf[index & MASK] = value;
+        return old;
+    }
+
+    @Override
+    public void add(int index, E value) {
+        checkIndex(index, size + 1);
+        checkWritable();
+        if (size == 1L << (shift + BITS)) {
+            Node grown = newNode(new Object[WIDTH]);
+            grown.slots[0] = root;
+            root = grown;
+            shift += BITS;
+        }
+        size++;
+        // Move [index, size - 2] up by one, a leaf at a time from the back.
+        int hi = size - 1;
+        while (hi > index) {
+            int leafStart = hi & ~MASK;
+            int lo = Math.max(index + 1, leafStart);
+            Object[] leaf = editableLeaf(hi);
+            if (lo > leafStart) {
+                System.arraycopy(leaf, lo - leafStart - 1, leaf, lo - leafStart, hi - lo + 1);
+            } else {
+                System.arraycopy(leaf, 0, leaf, 1, hi - leafStart);
+                leaf[0] = get(leafStart - 1); // the previous leaf is not shifted yet
+            }
+            hi = lo - 1;
+        }
+        editableLeaf(index)[index & MASK] = value;
+        modCount++;
+    }
+
+    @Override
+    public E remove(int index) {
+        E old = get(index);
+        checkWritable();
+        // Move [index + 1, size - 1] down by one, a leaf at a time from the front.
+        int lo = index;
+        while (lo < size - 1) {
+            int leafStart = lo & ~MASK;
+            int hi = Math.min(size - 2, leafStart + MASK);
+            Object[] leaf = editableLeaf(lo);
+            if (hi < leafStart + MASK) {
+                System.arraycopy(leaf, lo - leafStart + 1, leaf, lo - leafStart, hi - lo + 1);
+            } else {
+                System.arraycopy(leaf, lo - leafStart + 1, leaf, lo - leafStart, hi - lo);
+                leaf[MASK] = get(hi + 1); // the next leaf is not shifted yet
+            }
+            lo = hi + 1;
+        }
+        editableLeaf(size - 1)[(size - 1) & MASK] = null;
+        size--;
+        if (shift > 0 && size <= 1 << shift) {
+            root = (Node) root.slots[0];
+            shift -= BITS;
+        }
+        modCount++;
+        return old;
+    }
+
+    /** Closes the gap with one pass over the later elements, then drops the freed end. */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex == 0 && toIndex == size) {
+            clear();
+            return;
+        }
+        int gap = toIndex - fromIndex;
+        for (int i = toIndex; i < size; i++) {
+            set(i - gap, get(i));
+        }
+        for (int end = size - gap; size > end; ) {
+            remove(size - 1); // nothing follows the last element, so nothing shifts
+        }
+    }
+
+    @Override
+    public void clear() {
+        checkWritable();
+        root = newNode(new Object[WIDTH]);
+        shift = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /** Returns the leaf holding {@code index}, copying and creating nodes on its path as needed. */
+    private Object[] editableLeaf(int index) {
+        checkWritable();
+        root = editable(root);
+        Node n = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            int slot = (index >>> level) & MASK;
+            Node child = (Node) n.slots[slot];
+            child = child == null ? newNode(new Object[WIDTH]) : editable(child);
+            n.slots[slot] = child;
+            n = child;
+        }
+        return n.slots;
+    }
+
+    private Node editable(Node n) {
+        return n.owner == edit ? n : newNode(n.slots.clone());
+    }
+
+    private Node newNode(Object[] slots) {
+        nodesCreated++;
+        return new Node(edit, slots);
+    }
+
+    private void checkWritable() {
+        if (edit == null) {
+            throw new UnsupportedOperationException("Snapshots are read-only");
+        }
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package okuke.task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Typo-tolerant, ranked word search over task names, keyed by task id (see {@link TaskIds}).
+ *
+ * <ul>
+ *   <li>Names are split into lowercase words. Each distinct word has a posting list of
+ *       the ids whose names contain it, with how often.</li>
+ *   <li>The distinct words also form a BK-tree under Damerau-Levenshtein distance.
+ *       A query word therefore finds the words within one or two typos of it without
+ *       comparing itself to the whole vocabulary.</li>
+ *   <li>Matches are scored with BM25, each fuzzy match discounted per edit, and only
+ *       the best {@code limit} are kept in a heap.</li>
+ * </ul>
+ * Add and remove update the postings and name lengths exactly. Words whose last task
+ * is gone stay in the tree with an empty posting list and match nothing.
+ */
+final class SearchIndex {
+    /** BM25 term-frequency saturation. */
+    private static final double K1 = 1.2;
+    /** BM25 length normalisation. */
+    private static final double B = 0.75;
+    /** Score factor per edit between a query word and the word it matched. */
+    private static final double PER_EDIT = 0.5;
+    /** Most vocabulary words one query word may expand to, closest first; bounds the work per query. */
+    private static final int MAX_EXPANSIONS = 16;
+
+    private final Map<String, Term> terms = new HashMap<>();
+    private Node tree;
+    private int[] lengths = new int[16]; // words per name, by id; 0 once removed
+    private int documents;
+    private long totalLength;
+
+    // Scratch space for distance(): the DP table, and the last row of a holding each char.
+    private int[] table = new int[0];
+    private final int[] lastRow = new int[128];
+    private final Map<Character, Integer> lastRowOther = new HashMap<>();
+
+    /**
+     * Indexes the name of a newly appended task.
+     *
+     * @param id   the task's id; larger than every id added before
+     * @param name the task name
+     */
+    void add(int id, String name) {
+        List<String> words = words(name);
+        if (id >= lengths.length) {
+            lengths = Arrays.copyOf(lengths, Math.max(id + 1, lengths.length * 2));
+        }
+        lengths[id] = words.size();
+        documents++;
+        totalLength += words.size();
+        for (String w : words) {
+            Term t = terms.get(w);
+            if (t == null) {
+                t = new Term();
+                terms.put(w, t);
+                tree = insert(tree, w);
+            }
+            t.add(id);
+        }
+    }
+
+    /**
+     * Removes a task that was indexed under {@code id}.
+     *
+     * @param id   the task's id
+     * @param name the task name, unchanged since it was added
+     */
+    void remove(int id, String name) {
+        for (String w : words(name)) {
+            Term t = terms.get(w);
+            if (t != null) {
+                t.remove(id);
+            }
+        }
+        documents--;
+        totalLength -= lengths[id];
+        lengths[id] = 0;
+    }
+
+    /**
+     * Returns the ids of the best matches for {@code query}, best first. Every query
+     * word matches vocabulary words within {@link #maxEdits(int)} edits; a task scores
+     * the sum over query words of its best-matching word's discounted BM25 weight.
+     *
+     * @param query the words to look for, in any case
+     * @param limit most ids to return
+     * @return matching ids by descending score, ties in list order
+     */
+    int[] top(String query, int limit) {
+        Map<Integer, double[]> scores = new HashMap<>();
+        double averageLength = documents == 0 ? 1 : (double) totalLength / documents;
+        List<String> queryWords = words(query);
+        for (int q = 0; q < queryWords.size(); q++) {
+            String word = queryWords.get(q);
+            for (Match m : near(word, maxEdits(word.length()))) {
+                Term t = terms.get(m.word);
+                double idf = Math.log(1 + (documents - t.size + 0.5) / (t.size + 0.5));
+                double discount = Math.pow(PER_EDIT, m.distance);
+                for (int i = 0; i < t.size; i++) {
+                    int id = t.ids[i];
+                    int tf = t.counts[i];
+                    double norm = K1 * (1 - B + B * lengths[id] / averageLength);
+                    double weight = discount * idf * tf * (K1 + 1) / (tf + norm);
+                    // One slot per query word, so a word counts once per task however many variants match.
+                    double[] perWord = scores.computeIfAbsent(id, k -> new double[queryWords.size()]);
+                    perWord[q] = Math.max(perWord[q], weight);
+                }
+            }
+        }
+
+        PriorityQueue<Scored> best = new PriorityQueue<>(); // worst kept first
+        for (Map.Entry<Integer, double[]> e : scores.entrySet()) {
+            double total = 0;
+            for (double w : e.getValue()) total += w;
+            Scored s = new Scored(e.getKey(), total);
+            if (best.size() < limit) {
+                best.add(s);
+            } else if (limit > 0 && s.compareTo(best.peek()) > 0) {
+                best.poll();
+                best.add(s);
+            }
+        }
+        int[] ids = new int[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = best.poll().id;
+        }
+        return ids;
+    }
+
+    /** Edits a query word of {@code length} characters may be off by: none for short words. */
+    static int maxEdits(int length) {
+        return length <= 3 ? 0 : length <= 7 ? 1 : 2;
+    }
+
+    /** Splits {@code text} into lowercase runs of letters and digits. */
+    static List<String> words(String text) {
+        List<String> out = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                out.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    // ---------- BK-tree ----------
+
+    /** A vocabulary word; children are keyed by their edit distance to it. */
+    private static final class Node {
+        final String word;
+        Node[] children = new Node[0];
+
+        Node(String word) {
+            this.word = word;
+        }
+    }
+
+    /** A vocabulary word within reach of a query word. */
+    private static final class Match {
+        final String word;
+        final int distance;
+
+        Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+    }
+
+    private Node insert(Node root, String word) {
+        if (root == null) {
+            return new Node(word);
+        }
+        Node n = root;
+        while (true) {
+            int d = distance(word, n.word);
+            if (d >= n.children.length) {
+                n.children = Arrays.copyOf(n.children, d + 1);
+            }
+            if (n.children[d] == null) {
+                n.children[d] = new Node(word);
+                return root;
+            }
+            n = n.children[d];
+        }
+    }
+
+    /**
+     * Returns the live vocabulary words within {@code maxEdits} of {@code word}, closest
+     * and then most frequent first, at most {@link #MAX_EXPANSIONS} of them. By the
+     * triangle inequality only children at distance {@code d ± maxEdits} can match.
+     */
+    private List<Match> near(String word, int maxEdits) {
+        List<Match> out = new ArrayList<>();
+        if (maxEdits == 0) {
+            Term t = terms.get(word);
+            if (t != null && t.size > 0) out.add(new Match(word, 0));
+            return out;
+        }
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        if (tree != null) pending.push(tree);
+        while (!pending.isEmpty()) {
+            Node n = pending.pop();
+            int d = distance(word, n.word);
+            if (d <= maxEdits && terms.get(n.word).size > 0) {
+                out.add(new Match(n.word, d));
+            }
+            int hi = Math.min(n.children.length - 1, d + maxEdits);
+            for (int c = Math.max(1, d - maxEdits); c <= hi; c++) {
+                if (n.children[c] != null) pending.push(n.children[c]);
+            }
+        }
+        out.sort((a, b) -> a.distance != b.distance ? Integer.compare(a.distance, b.distance)
+                : Integer.compare(terms.get(b.word).size, terms.get(a.word).size));
+        return out.size() > MAX_EXPANSIONS ? out.subList(0, MAX_EXPANSIONS) : out;
+    }
+
+    /**
+     * Damerau-Levenshtein distance between {@code a} and {@code b}: insertions,
+     * deletions, substitutions and swaps of adjacent characters each cost one edit.
+     * Unlike the restricted variant it is a metric, which the BK-tree relies on.
+     * Reuses this index's scratch table, so calls must not overlap.
+     */
+    int distance(String a, String b) {
+        int m = a.length();
+        int n = b.length();
+        int width = n + 2;
+        if (table.length < (m + 2) * width) {
+            table = new int[(m + 2) * width];
+        }
+        // table[(i + 1) * width + j + 1] is the distance between the first i chars of a and first j of b.
+        int infinity = m + n;
+        table[0] = infinity;
+        for (int i = 0; i <= m; i++) {
+            table[(i + 1) * width] = infinity;
+            table[(i + 1) * width + 1] = i;
+        }
+        for (int j = 0; j <= n; j++) {
+            table[j + 1] = infinity;
+            table[width + j + 1] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            int lastMatchColumn = 0;
+            char ai = a.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                char bj = b.charAt(j - 1);
+                int i1 = bj < lastRow.length ? lastRow[bj] : lastRowOther.getOrDefault(bj, 0);
+                int j1 = lastMatchColumn;
+                int cost = 1;
+                if (ai == bj) {
+                    cost = 0;
+                    lastMatchColumn = j;
+                }
+                int substitute = table[i * width + j] + cost;
+                int insert = table[(i + 1) * width + j] + 1;
+                int delete = table[i * width + j + 1] + 1;
+                int swap = table[i1 * width + j1] + (i - i1 - 1) + 1 + (j - j1 - 1);
+                table[(i + 1) * width + j + 1] = Math.min(Math.min(substitute, insert), Math.min(delete, swap));
+            }
+            if (ai < lastRow.length) {
+                lastRow[ai] = i;
+            } else {
+                lastRowOther.put(ai, i);
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            char c = a.charAt(i);
+            if (c < lastRow.length) lastRow[c] = 0;
+        }
+        lastRowOther.clear();
+        return table[(m + 1) * width + n + 1];
+    }
+
+    // ---------- postings ----------
+
+    /** Ids containing one word, in increasing order, each with its number of occurrences. */
+    private static final class Term {
+        int[] ids = new int[4];
+        int[] counts = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                counts[size - 1]++; // word repeats within one name
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            ids[size] = id;
+            counts[size++] = 1;
+        }
+
+        /** Removes {@code id}, which may be listed once for a word repeated in its name. */
+        void remove(int id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            System.arraycopy(counts, i + 1, counts, i, size - i - 1);
+            size--;
+        }
+    }
+
+    /** An id with its score, ordered worst first: lower score, then later in the list. */
+    private static final class Scored implements Comparable<Scored> {
+        final int id;
+        final double score;
+
+        Scored(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Scored o) {
+            int c = Double.compare(score, o.score);
+            return c != 0 ? c : Integer.compare(o.id, id);
+        }
+    }
+}
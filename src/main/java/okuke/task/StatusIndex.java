@@ -0,0 +1,98 @@
+package okuke.task;
+
+import java.util.BitSet;
+
+/**
+ * Bitmaps over list positions for a {@link TaskList}: one of done tasks and one per
+ * task type. Filters combine them with AND/OR and iterate only the set bits, so no
+ * task is decoded or has its status string tested to answer them.
+ *
+ * <p>Unlike the id-keyed search indexes, bits are keyed by position; a removal
+ * shifts every later bit down by one word-wise (see {@link Bitmaps#shift}).</p>
+ */
+final class StatusIndex {
+    /** Type letters as used by the snapshot format and {@code list /type}. */
+    static final String TYPES = "TDE";
+
+    private BitSet done = new BitSet();
+    private final BitSet[] byType = { new BitSet(), new BitSet(), new BitSet() };
+    private int size;
+
+    /**
+     * Indexes every task of {@code tasks}, in order.
+     *
+     * @param tasks the tasks to index
+     */
+    StatusIndex(Iterable<Task> tasks) {
+        for (Task t : tasks) {
+            append(t);
+        }
+    }
+
+    int size() { return size; }
+
+    /** Indexes a task appended at the end of the list. */
+    void append(Task t) {
+        if ("X".equals(t.getStatus())) {
+            done.set(size);
+        }
+        byType[typeOf(t)].set(size);
+        size++;
+    }
+
+    /** Forgets the task at {@code position}; later tasks move up by one. */
+    void remove(int position) {
+        assert position >= 0 && position < size : "position out of range";
+        done = Bitmaps.shift(done, position, -1);
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = Bitmaps.shift(byType[i], position, -1);
+        }
+        size--;
+    }
+
+    /** Forgets the tasks at {@code positions}; the rest close up, keeping their order. */
+    void removeAll(BitSet positions) {
+        done = Bitmaps.removeAll(done, positions);
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = Bitmaps.removeAll(byType[i], positions);
+        }
+        size -= positions.cardinality();
+    }
+
+    /** Records a mark or unmark of the task at {@code position}. */
+    void setDone(int position, boolean isDone) {
+        done.set(position, isDone);
+    }
+
+    /**
+     * Returns the positions of tasks that match both filters.
+     *
+     * @param isDone {@code true} for done tasks only, {@code false} for open ones, {@code null} for either
+     * @param types  letters from {@link #TYPES} to include, or {@code null} for every type
+     * @return a new bitmap of matching zero-based positions
+     */
+    BitSet select(Boolean isDone, String types) {
+        BitSet result = new BitSet(size);
+        if (types == null) {
+            result.set(0, size);
+        } else {
+            for (int i = 0; i < types.length(); i++) {
+                result.or(byType[TYPES.indexOf(types.charAt(i))]);
+            }
+        }
+        if (isDone != null) {
+            if (isDone) {
+                result.and(done);
+            } else {
+                result.andNot(done);
+            }
+        }
+        return result;
+    }
+
+    private static int typeOf(Task t) {
+        if (t instanceof Deadline) return 1;
+        if (t instanceof Event) return 2;
+        return 0;
+    }
+}
@@ -7,6 +7,7 @@ package okuke.task;
 public class Task {
     private final String taskName;
     private boolean isMark;
+    private String rendered; // toString(), cached until the mark changes
 
     /**
      * Constructs a new task marked as not done.
@@ -16,6 +17,7 @@ public class Task {
     public Task(String taskName) {
         this.taskName = taskName;
         this.isMark = false;
+        this.rendered = null;
     }
 
     /**
@@ -32,6 +34,7 @@ public class Task {
      */
     public void setMark() {
         this.isMark = true;
+        this.rendered = null;
     }
 
     /**
@@ -39,6 +42,7 @@ public class Task {
      */
     public void unMark() {
         this.isMark = false;
+        this.rendered = null;
     }
 
     /**
@@ -54,13 +58,29 @@ public class Task {
     }
 
     /**
-     * Returns a compact string form used in list displays.
-     * Format: "[<status>] <name>", where status is "X" or " ".
+     * Returns the display string built by {@link #render()}. It is built once and kept
+     * until {@link #setMark()} or {@link #unMark()}, the only changes that affect it.
      *
      * @return display string for this task
      */
     @Override
-    public String toString() {
-        return String.format("[%s] %s", getStatus(), this.taskName);
+    public final String toString() {
+        String s = rendered;
+        if (s == null) {
+            s = render();
+            rendered = s;
+        }
+        return s;
+    }
+
+    /**
+     * Builds the compact string form used in list displays.
+     * Format: "[<status>] <name>", where status is "X" or " ".
+     * Subclasses extend this instead of overriding {@link #toString()}.
+     *
+     * @return display string for this task
+     */
+    protected String render() {
+        return "[" + getStatus() + "] " + this.taskName;
     }
 }
@@ -0,0 +1,114 @@
+package okuke.task;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Stable ids for the positions of a {@link TaskList}, used by its search indexes.
+ *
+ * <p>Ids are handed out in increasing order and only ever appended, so they stay
+ * sorted along the list. An index can therefore store ids and find a task's current
+ * position from them, even after tasks before it were removed.</p>
+ *
+ * <p>Every id ever issued keeps a slot; a removed id's slot is cleared rather than
+ * shifted out. A Fenwick tree over the slots counts the live ids below any id, so
+ * mapping between ids and positions, and removing, all take O(log n).</p>
+ */
+final class TaskIds {
+    private final BitSet live = new BitSet();
+    // tree[i] counts the live ids in slots (i - lowbit(i), i], 1-based.
+    private int[] tree;
+    private int next;
+    private int size;
+
+    /**
+     * Creates ids {@code 0 .. count-1} for a list of {@code count} tasks.
+     *
+     * @param count current size of the list
+     */
+    TaskIds(int count) {
+        this.tree = new int[Math.max(16, count + 1)];
+        for (int i = 1; i <= count; i++) {
+            tree[i] = Integer.lowestOneBit(i);
+        }
+        live.set(0, count);
+        this.next = count;
+        this.size = count;
+    }
+
+    int size() { return size; }
+
+    /**
+     * Returns the id of the task at {@code position}.
+     *
+     * @param position zero-based position in the list
+     * @return the id of the task there
+     */
+    int idAt(int position) {
+        assert position >= 0 && position < size : "position out of range";
+        // Descend to the last slot whose prefix count is still <= position.
+        int slot = 0;
+        int remaining = position;
+        for (int step = Integer.highestOneBit(next); step > 0; step >>= 1) {
+            int probe = slot + step;
+            if (probe <= next && tree[probe] <= remaining) {
+                slot = probe;
+                remaining -= tree[probe];
+            }
+        }
+        return slot; // the task is in 1-based slot + 1, which holds id == slot
+    }
+
+    /**
+     * Assigns an id to a task appended at the end of the list.
+     *
+     * @return the new id
+     */
+    int append() {
+        int i = next + 1;
+        if (i == tree.length) {
+            tree = Arrays.copyOf(tree, tree.length * 2);
+        }
+        // Slot i covers (i - lowbit(i), i]: itself plus the earlier slots in that range.
+        tree[i] = 1 + liveBelow(i - 1) - liveBelow(i - Integer.lowestOneBit(i));
+        live.set(next);
+        size++;
+        return next++;
+    }
+
+    /**
+     * Forgets the task at {@code position}; later tasks move up by one.
+     *
+     * @param position zero-based position of the removed task
+     * @return the id it had
+     */
+    int remove(int position) {
+        int id = idAt(position);
+        live.clear(id);
+        for (int i = id + 1; i <= next; i += Integer.lowestOneBit(i)) {
+            tree[i]--;
+        }
+        size--;
+        return id;
+    }
+
+    /**
+     * Finds the current position of {@code id}.
+     *
+     * @param id the id to look up
+     * @return the position, or {@code -(insertion point) - 1} if the task was removed
+     */
+    int positionOf(int id) {
+        int before = liveBelow(Math.min(id, next));
+        return id < next && live.get(id) ? before : -before - 1;
+    }
+
+    /** Counts the live ids in {@code [0, limit)}. */
+    private int liveBelow(int limit) {
+        int count = 0;
+        for (int i = limit; i > 0; i -= Integer.lowestOneBit(i)) {
+            count += tree[i];
+        }
+        return count;
+    }
+}
@@ -1,21 +1,166 @@
 package okuke.task;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Mutable list wrapper around tasks with convenience helpers
  * for 1-based operations and date-based filtering.
+ *
+ * <p>Tasks are kept in an {@link ArrayList} by default. A list that sees many removals
+ * far from its end can choose {@link Backing#TREE} instead, which makes positional
+ * access, insertion and removal O(log n) at the cost of slower reads, and a very large
+ * list can choose {@link Backing#COLUMNAR}, which stores tasks as columns of primitives
+ * in a fraction of the heap and only builds {@link Task} objects when they are read.</p>
+ *
+ * <p>{@link #snapshot()} returns an immutable copy of the list for readers on other
+ * threads, such as the background storage writer. With {@link Backing#PERSISTENT} it
+ * takes O(1) and shares structure with the live list; other backings copy. Once a
+ * snapshot has been taken, marking or unmarking replaces the task object instead of
+ * changing it, so tasks seen by a snapshot never change under it.</p>
+ *
+ * <p>Snapshots also back {@link #undo()} and {@link #redo()}: once
+ * {@link #enableUndo(long)} is called, every {@link #checkpoint()} that follows a
+ * change keeps the new contents as a version. With {@link Backing#PERSISTENT} taking
+ * and restoring a version are O(1) and a version only costs the nodes that changed
+ * after it, so the history is bounded by an estimate of that memory, not a count.</p>
+ *
+ * <p>The list also remembers what changed since it was last saved (see
+ * {@link #changesSinceSave()}), so storage can write only those records.</p>
+ *
+ * <p>{@link #find(String)} is served by a {@link TrigramIndex}, and the date queries
+ * ({@link #occurringOn(LocalDate)}, {@link #between(LocalDate, LocalDate)},
+ * {@link #overdue(LocalDateTime)}, {@link #upcoming(LocalDateTime, int)}) by a {@link DateIndex}. Each is built on its first
+ * query and then kept up to date by {@link #add(Task)} and {@link #removeOneBased(int)}.
+ * {@link #search(String, int)} ranks tasks by typo-tolerant word matches from a
+ * {@link SearchIndex}, maintained the same way.
+ * Status and type filters ({@link #positionsMatching(Boolean, String)}) are answered
+ * from a {@link StatusIndex} of bitmaps, also kept up to date by marks and unmarks.</p>
+ *
+ * <p>A list of at least {@link #setParallelThreshold(int) the parallel threshold} answers
+ * its first text or date query, and every text query too short for trigrams, with a
+ * {@link ParallelScan} over all cores instead; only a second query builds the index.
+ * Results come back in list order either way.</p>
  */
 public class TaskList {
     private final List<Task> tasks;
 
+    // Change tracking since the last save; positions refer to the current list.
+    private final BitSet changedSinceSave = new BitSet();
+    private int savedSize;
+    private boolean restructuredSinceSave;
+
+    // Search indexes; each null until the first query that needs it.
+    private TaskIds ids;
+    private TrigramIndex trigrams;
+    private DateIndex dates;
+    private StatusIndex status;
+    private SearchIndex words;
+
+    // Set by the first snapshot; tasks are then copied before being marked or unmarked.
+    private boolean snapshotTaken;
+    // Estimated memory of tasks replaced or removed so far, which snapshots may still hold.
+    private long replacedBytes;
+
+    // Counts every change, so the undo history can tell whether a command changed anything.
+    private long edits;
+    private UndoHistory history;
+
+    // Scans at or above this size run in parallel; a query that scanned leaves its index to the next one.
+    private int parallelThreshold = ParallelScan.DEFAULT_THRESHOLD;
+    private boolean scannedForFind;
+    private boolean scannedForDates;
+
+    /** Rough heap size of a task object with a short name, for undo accounting. */
+    private static final int TASK_BYTES = 64;
+
+    /** How a {@code TaskList} stores its tasks in memory. */
+    public enum Backing {
+        /** An {@link ArrayList}: O(1) access, O(n) removal away from the end. */
+        ARRAY,
+        /** An order-statistic tree: O(log n) access, insertion and removal anywhere. */
+        TREE,
+        /** Columns of primitives and one name arena; tasks are rebuilt on every read. */
+        COLUMNAR,
+        /** A persistent 32-way trie: O(1) snapshots that share structure with the list. */
+        PERSISTENT;
+
+        /**
+         * Creates an empty list with this representation, e.g. for
+         * {@link okuke.storage.Storage#load(List)} to decode into without an
+         * intermediate copy; wrap the result with {@link TaskList#backedBy(List)}.
+         *
+         * @return a new empty list
+         */
+        public List<Task> newList() {
+            return switch (this) {
+                case ARRAY -> new ArrayList<>();
+                case TREE -> new TreeList<>();
+                case COLUMNAR -> new ColumnarTaskList();
+                case PERSISTENT -> new PersistentVector<>();
+            };
+        }
+
+        private List<Task> newList(Collection<Task> initial) {
+            if (this == TREE) {
+                return new TreeList<>(initial); // built balanced in one pass
+            }
+            List<Task> list = newList();
+            list.addAll(initial);
+            return list;
+        }
+    }
+
+    /**
+     * Records changed since the last save, as seen by storage.
+     * Positions below {@link #getSavedSize()} are where they were when last saved,
+     * unless {@link #isRestructured()}; everything from there on was appended.
+     */
+    public static final class Changes {
+        private final int savedSize;
+        private final boolean restructured;
+        private final BitSet changed;
+
+        private Changes(int savedSize, boolean restructured, BitSet changed) {
+            this.savedSize = savedSize;
+            this.restructured = restructured;
+            this.changed = changed;
+        }
+
+        /** Number of records the list had at the last save. */
+        public int getSavedSize() { return savedSize; }
+
+        /** Whether records were removed or reordered, so saved positions no longer hold. */
+        public boolean isRestructured() { return restructured; }
+
+        /**
+         * Returns the zero-based positions of saved records whose contents changed.
+         *
+         * @return a copy of the changed positions
+         */
+        public BitSet getChanged() { return (BitSet) changed.clone(); }
+    }
+
     /**
      * Creates an empty task list.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(Backing.ARRAY);
+    }
+
+    /**
+     * Creates an empty task list with the given in-memory representation.
+     *
+     * @param backing how to store the tasks
+     */
+    public TaskList(Backing backing) {
+        this(List.of(), backing);
     }
 
     /**
@@ -25,7 +170,35 @@ public class TaskList {
      * @param initial the initial tasks to include
      */
     public TaskList(List<Task> initial) {
-        this.tasks = new ArrayList<>(initial);
+        this(initial, true);
+    }
+
+    /**
+     * Creates a task list initialized with a copy of the given tasks, stored as {@code backing}.
+     *
+     * @param initial the initial tasks to include
+     * @param backing how to store the tasks
+     */
+    public TaskList(List<Task> initial, Backing backing) {
+        this(backing.newList(initial), false);
+    }
+
+    private TaskList(List<Task> initial, boolean copy) {
+        this.tasks = copy ? new ArrayList<>(initial) : initial;
+        this.savedSize = tasks.size();
+    }
+
+    /**
+     * Creates a task list that uses {@code backing} directly instead of copying it,
+     * e.g. a lazily decoded list from {@link okuke.storage.Storage#loadLazy()}.
+     * The backing list must support {@code add}, {@code remove} and {@code set}.
+     *
+     * @param backing the list to operate on
+     * @return a task list over {@code backing}
+     */
+    public static TaskList backedBy(List<Task> backing) {
+        assert backing != null : "backing list cannot be null";
+        return new TaskList(backing, false);
     }
 
     public int size() { return tasks.size(); }
@@ -44,7 +217,8 @@ public class TaskList {
 
     /**
      * Returns the underlying modifiable list view.
-     * Mutations on the returned list will reflect in this TaskList.
+     * Mutations on the returned list will reflect in this TaskList, but are not
+     * tracked; call {@link #markAllChanged()} after making any.
      *
      * @return the backing list of tasks
      */
@@ -53,6 +227,14 @@ public class TaskList {
     public void add(Task t) {
         assert t != null : "cannot add null task";
         tasks.add(t);
+        edits++;
+        if (status != null) status.append(t);
+        if (ids != null) {
+            int id = ids.append();
+            if (trigrams != null) trigrams.add(id, t.getTaskName().toLowerCase());
+            if (dates != null) dates.add(id, t);
+            if (words != null) words.add(id, t.getTaskName());
+        }
     }
 
     /**
@@ -64,7 +246,18 @@ public class TaskList {
      */
     public Task removeOneBased(int indexOneBased) {
         assert indexOneBased >= 1 && indexOneBased <= tasks.size() : "index OOB";
-        return tasks.remove(indexOneBased - 1);
+        Task removed = tasks.remove(indexOneBased - 1);
+        restructuredSinceSave = true;
+        edits++;
+        replacedBytes += TASK_BYTES;
+        if (status != null) status.remove(indexOneBased - 1);
+        if (ids != null) {
+            int id = ids.remove(indexOneBased - 1);
+            if (trigrams != null) trigrams.remove();
+            if (dates != null) dates.remove(id, removed);
+            if (words != null) words.remove(id, removed.getTaskName());
+        }
+        return removed;
     }
 
     /**
@@ -75,8 +268,13 @@ public class TaskList {
      * @throws IndexOutOfBoundsException if the index is invalid
      */
     public Task markOneBased(int indexOneBased) {
-        Task t = tasks.get(indexOneBased - 1);
+        Task t = writableTask(indexOneBased - 1);
         t.setMark();
+        tasks.set(indexOneBased - 1, t); // lazily decoded backings only keep tasks written back
+        edits++;
+        changedSinceSave.set(indexOneBased - 1);
+        if (status != null) status.setDone(indexOneBased - 1, true);
+        if (dates != null) dates.setDone(ids.idAt(indexOneBased - 1), t, true);
         return t;
     }
 
@@ -88,11 +286,309 @@ public class TaskList {
      * @throws IndexOutOfBoundsException if the index is invalid
      */
     public Task unmarkOneBased(int indexOneBased) {
-        Task t = tasks.get(indexOneBased - 1);
+        Task t = writableTask(indexOneBased - 1);
         t.unMark();
+        tasks.set(indexOneBased - 1, t);
+        edits++;
+        changedSinceSave.set(indexOneBased - 1);
+        if (status != null) status.setDone(indexOneBased - 1, false);
+        if (dates != null) dates.setDone(ids.idAt(indexOneBased - 1), t, false);
         return t;
     }
 
+    /**
+     * Marks every task at the given zero-based positions as done.
+     * Nothing changes if any position is out of range.
+     *
+     * @param positions zero-based positions, e.g. from {@link #positionsMatching(Boolean, String)}
+     * @throws IndexOutOfBoundsException if a position is not in the list
+     */
+    public void markAll(BitSet positions) {
+        setDoneAll(positions, true);
+    }
+
+    /**
+     * Unmarks every task at the given zero-based positions.
+     * Nothing changes if any position is out of range.
+     *
+     * @param positions zero-based positions
+     * @throws IndexOutOfBoundsException if a position is not in the list
+     */
+    public void unmarkAll(BitSet positions) {
+        setDoneAll(positions, false);
+    }
+
+    private void setDoneAll(BitSet positions, boolean done) {
+        checkPositions(positions);
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            Task t = writableTask(i);
+            if (done) t.setMark(); else t.unMark();
+            tasks.set(i, t);
+            if (status != null) status.setDone(i, done);
+            if (dates != null) dates.setDone(ids.idAt(i), t, done);
+        }
+        changedSinceSave.or(positions);
+        edits++;
+    }
+
+    /**
+     * Removes every task at the given zero-based positions in one pass, closing up
+     * the rest in order. Nothing changes if any position is out of range.
+     *
+     * @param positions zero-based positions
+     * @return the removed tasks, in their former order
+     * @throws IndexOutOfBoundsException if a position is not in the list
+     */
+    public List<Task> removeAll(BitSet positions) {
+        checkPositions(positions);
+        List<Task> removed;
+        if (tasks instanceof ColumnarTaskList columns) {
+            removed = columns.removeAll(positions);
+        } else if (tasks instanceof ArrayList || tasks instanceof PersistentVector) {
+            // Close up the kept tasks in one pass, then cut the tail off the end.
+            removed = new ArrayList<>(positions.cardinality());
+            int kept = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                Task t = tasks.get(i);
+                if (positions.get(i)) {
+                    removed.add(t);
+                } else {
+                    tasks.set(kept++, t);
+                }
+            }
+            tasks.subList(kept, tasks.size()).clear();
+        } else {
+            // Tree and lazily decoded backings remove in O(log n) one by one; go backwards so positions hold.
+            removed = new ArrayList<>(positions.cardinality());
+            for (int i = positions.length() - 1; i >= 0; i = positions.previousSetBit(i - 1)) {
+                removed.add(tasks.remove(i));
+            }
+            Collections.reverse(removed);
+        }
+
+        if (!removed.isEmpty()) {
+            restructuredSinceSave = true;
+            edits++;
+            replacedBytes += (long) removed.size() * TASK_BYTES;
+        }
+        if (status != null) status.removeAll(positions);
+        if (ids != null) {
+            int n = removed.size();
+            for (int i = positions.length() - 1; i >= 0; i = positions.previousSetBit(i - 1)) {
+                int id = ids.remove(i);
+                Task t = removed.get(--n);
+                if (trigrams != null) trigrams.remove();
+                if (dates != null) dates.remove(id, t);
+                if (words != null) words.remove(id, t.getTaskName());
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns an immutable copy of the list as it is now, safe to read from another
+     * thread while this list keeps changing (publish it through any synchronization,
+     * e.g. a concurrent queue). O(1) for {@link Backing#PERSISTENT}; otherwise O(n).
+     *
+     * @return an unmodifiable list that never changes
+     */
+    public List<Task> snapshot() {
+        snapshotTaken = true;
+        if (tasks instanceof PersistentVector<Task> vector) {
+            return vector.snapshot();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(tasks));
+    }
+
+    /**
+     * Estimates the memory of the tasks and trie nodes this list has replaced or
+     * removed so far. It only grows; the growth between two snapshots is roughly what
+     * the older one holds that the newer one does not share.
+     */
+    long bytesReplaced() {
+        if (tasks instanceof PersistentVector<Task> vector) {
+            return replacedBytes + vector.nodesCreated() * PersistentVector.NODE_BYTES;
+        }
+        return replacedBytes;
+    }
+
+    /**
+     * Estimates the memory a snapshot of this list holds on its own: nothing for a
+     * trie, otherwise its copied array, plus the tasks when the backing decodes a
+     * fresh task on every read.
+     */
+    long bytesOwned(List<Task> snapshot) {
+        if (snapshot instanceof PersistentVector) {
+            return 0;
+        }
+        long bytes = 16 + 4L * snapshot.size();
+        if (tasks instanceof ColumnarTaskList) {
+            bytes += (long) TASK_BYTES * snapshot.size();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns whether {@link #snapshot()} is O(1), so that a version per command for
+     * {@link #undo()} costs only what the command changed.
+     *
+     * @return {@code true} for {@link Backing#PERSISTENT}
+     */
+    public boolean hasCheapSnapshot() {
+        return tasks instanceof PersistentVector;
+    }
+
+    /** Number of changes made so far; differs between two calls iff the list was changed. */
+    long edits() { return edits; }
+
+    /**
+     * Replaces the contents with a version from {@link #snapshot()}, in O(1) for
+     * {@link Backing#PERSISTENT} and by copying otherwise. Every index is dropped and
+     * the next save rewrites the whole list.
+     *
+     * @param version a snapshot of this list
+     */
+    void restore(List<Task> version) {
+        if (tasks instanceof PersistentVector<Task> vector && version instanceof PersistentVector<Task> frozen) {
+            vector.restore(frozen);
+        } else {
+            tasks.clear();
+            tasks.addAll(version);
+        }
+        markAllChanged();
+    }
+
+    /**
+     * Starts keeping versions for {@link #undo()} and {@link #redo()}, with the current
+     * contents as the oldest. Lists without a {@linkplain #hasCheapSnapshot() cheap
+     * snapshot} copy the whole list at every checkpoint, so the application only
+     * enables this for {@link Backing#PERSISTENT}.
+     *
+     * @param budgetBytes estimated memory the versions may hold before the oldest are dropped
+     */
+    public void enableUndo(long budgetBytes) {
+        assert budgetBytes >= 0 : "budget cannot be negative";
+        history = new UndoHistory(this, budgetBytes);
+    }
+
+    /**
+     * Keeps the current contents as a new version if they changed since the last
+     * checkpoint, which also drops the versions that could be redone. Call once after
+     * each command; does nothing unless {@link #enableUndo(long)} was called.
+     */
+    public void checkpoint() {
+        if (history != null) history.checkpoint();
+    }
+
+    public boolean isUndoEnabled() { return history != null; }
+
+    /**
+     * Goes back to the version before the current one.
+     *
+     * @return {@code false} if there is none, e.g. it was dropped to stay in budget
+     */
+    public boolean undo() {
+        return history != null && history.undo();
+    }
+
+    /**
+     * Goes forward again to the version left by the last {@link #undo()}.
+     *
+     * @return {@code false} if there is none, e.g. the list was changed since
+     */
+    public boolean redo() {
+        return history != null && history.redo();
+    }
+
+    /** Returns the task at {@code position}, replaced by a private copy if a snapshot may share it. */
+    private Task writableTask(int position) {
+        Task t = tasks.get(position);
+        if (!snapshotTaken) {
+            return t;
+        }
+        replacedBytes += TASK_BYTES;
+        return copyOf(t);
+    }
+
+    private static Task copyOf(Task t) {
+        Task copy;
+        if (t instanceof Deadline d) {
+            copy = new Deadline(d.getTaskName(), d.getByDateTime());
+        } else if (t instanceof Event e) {
+            copy = new Event(e.getTaskName(), e.getStartDateTime(), e.getEndDateTime());
+        } else if (t instanceof Todo) {
+            copy = new Todo(t.getTaskName());
+        } else {
+            copy = new Task(t.getTaskName());
+        }
+        if ("X".equals(t.getStatus())) {
+            copy.setMark();
+        }
+        return copy;
+    }
+
+    private void checkPositions(BitSet positions) {
+        if (positions.length() > tasks.size()) {
+            throw new IndexOutOfBoundsException("Index " + (positions.length() - 1)
+                    + " out of bounds for length " + tasks.size());
+        }
+    }
+
+    /**
+     * Returns what changed since the last {@link #markSaved()}.
+     *
+     * @return an independent snapshot of the pending changes
+     */
+    public Changes changesSinceSave() {
+        return new Changes(savedSize, restructuredSinceSave, (BitSet) changedSinceSave.clone());
+    }
+
+    /**
+     * Records that the whole list, as it is now, has been written to storage.
+     */
+    public void markSaved() {
+        savedSize = tasks.size();
+        restructuredSinceSave = false;
+        changedSinceSave.clear();
+    }
+
+    /**
+     * Forces the next save to rewrite everything, e.g. after editing {@link #asList()} directly.
+     */
+    public void markAllChanged() {
+        restructuredSinceSave = true;
+        edits++;
+        ids = null;
+        trigrams = null;
+        dates = null;
+        status = null;
+        words = null;
+    }
+
+    /**
+     * Returns the positions of tasks with the given status and type, combining the
+     * status and type bitmaps; neither tasks nor their status strings are examined.
+     *
+     * @param done  {@code true} for done tasks only, {@code false} for open ones, {@code null} for either
+     * @param types type letters to include, any of {@code "T"}, {@code "D"} and {@code "E"}
+     *              (e.g. {@code "DE"}); {@code null} for every type
+     * @return zero-based positions of the matching tasks
+     * @throws IllegalArgumentException if {@code types} contains another letter
+     */
+    public BitSet positionsMatching(Boolean done, String types) {
+        if (types != null) {
+            for (int i = 0; i < types.length(); i++) {
+                if (StatusIndex.TYPES.indexOf(types.charAt(i)) < 0) {
+                    throw new IllegalArgumentException("Unknown task type: " + types.charAt(i));
+                }
+            }
+        }
+        if (status == null || status.size() != tasks.size()) {
+            status = new StatusIndex(tasks);
+        }
+        return status.select(done, types);
+    }
+
     /**
     * Returns tasks that are relevant to the specified date:
     * <ul>
@@ -105,19 +601,81 @@ public class TaskList {
     * @return a new list of tasks occurring on the given date
     */
     public List<Task> occurringOn(LocalDate date) {
+        return between(date, date);
+    }
+
+    /**
+     * Returns deadlines due on a date in {@code [from, to]} and events overlapping
+     * that range, both ends inclusive. {@code between(d, d)} equals {@code occurringOn(d)},
+     * and the result is empty if {@code to} is before {@code from}.
+     *
+     * @param from first date of the range
+     * @param to   last date of the range
+     * @return a new list of matching tasks in their original order
+     */
+    public List<Task> between(LocalDate from, LocalDate to) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        if (dates == null && !scannedForDates && fromDay <= toDay && tasks.size() >= parallelThreshold()) {
+            scannedForDates = true;
+            return ParallelScan.filter(tasks, t -> occursBetween(t, fromDay, toDay), parallelThreshold());
+        }
+        return byIds(dateIndex().between(fromDay, toDay));
+    }
+
+    private static boolean occursBetween(Task t, long fromDay, long toDay) {
+        if (t instanceof Deadline d) {
+            long day = DateIndex.day(d);
+            return day >= fromDay && day <= toDay;
+        }
+        if (t instanceof Event e) {
+            return DateIndex.startDay(e) <= toDay && DateIndex.endDay(e) >= fromDay;
+        }
+        return false;
+    }
+
+    /**
+     * Returns unfinished deadlines due before {@code now}, most overdue first.
+     * Done deadlines are kept out of the index this reads, so they cost nothing here.
+     *
+     * @param now the current date-time
+     * @return a new list of overdue deadlines
+     */
+    public List<Task> overdue(LocalDateTime now) {
         List<Task> out = new ArrayList<>();
-        for (Task t : tasks) {
-            if (t instanceof Deadline d) {
-                if (d.getByDateTime().toLocalDate().equals(date)) out.add(t);
-            } else if (t instanceof Event e) {
-                var start = e.getStartDateTime().toLocalDate();
-                var end   = e.getEndDateTime().toLocalDate();
-                if (!date.isBefore(start) && !date.isAfter(end)) out.add(t);
-            }
+        dateIndex().forEachOpenDeadline(now, id -> {
+            out.add(byId(id));
+            return true;
+        });
+        return out;
+    }
+
+    /**
+     * Returns the next {@code limit} unfinished deadlines and events due or starting
+     * at or after {@code now}, soonest first. Only those tasks are visited.
+     *
+     * @param now   the current date-time
+     * @param limit maximum number of tasks to return
+     * @return a new list of at most {@code limit} upcoming tasks
+     */
+    public List<Task> upcoming(LocalDateTime now, int limit) {
+        assert limit >= 0 : "limit cannot be negative";
+        List<Task> out = new ArrayList<>();
+        if (limit == 0) {
+            return out;
         }
+        dateIndex().forEachInTime(now, null, id -> {
+            Task t = byId(id);
+            if (t != null && !isDone(t)) out.add(t);
+            return out.size() < limit;
+        });
         return out;
     }
 
+    private static boolean isDone(Task t) {
+        return "X".equals(t.getStatus());
+    }
+
     /**
      * Returns tasks whose description contains the given keyword,
      * case-insensitive.
@@ -127,8 +685,17 @@ public class TaskList {
      */
     public List<Task> find(String keyword) {
         String needle = keyword == null ? "" : keyword.toLowerCase();
+        Predicate<Task> matches = t -> t.getTaskName().toLowerCase().contains(needle);
+        if (needle.length() < TrigramIndex.GRAM) {
+            return ParallelScan.filter(tasks, matches, parallelThreshold());
+        }
+        if (trigrams == null && !scannedForFind && tasks.size() >= parallelThreshold()) {
+            scannedForFind = true;
+            return ParallelScan.filter(tasks, matches, parallelThreshold());
+        }
+
         List<Task> result = new ArrayList<>();
-        for (Task t : tasks) {
+        for (Task t : byIds(trigramIndex().candidates(needle))) {
             if (t.getTaskName().toLowerCase().contains(needle)) {
                 result.add(t);
             }
@@ -136,4 +703,120 @@ public class TaskList {
         return result;
     }
 
+    /**
+     * Returns the tasks that best match the words of {@code query}, best first, ranked
+     * by BM25 over task-name words. Query words of four or more characters also match
+     * words one edit away, and of eight or more two edits, at a lower weight. Served
+     * by a {@link SearchIndex} built on the first search and then kept up to date.
+     *
+     * @param query the words to look for; case and punctuation are ignored
+     * @param limit most tasks to return
+     * @return a new list of at most {@code limit} tasks
+     */
+    public List<Task> search(String query, int limit) {
+        assert limit >= 0 : "limit cannot be negative";
+        return byRank(searchIndex().top(query == null ? "" : query, limit));
+    }
+
+    /**
+     * Sets the list size from which scans run on the common fork-join pool, and from
+     * which the first text or date query scans rather than building its index.
+     * Defaults to {@code -Dokuke.task.parallelThreshold}, or 65536.
+     *
+     * @param threshold smallest list to scan in parallel; {@link Integer#MAX_VALUE} for never
+     */
+    public void setParallelThreshold(int threshold) {
+        assert threshold >= 0 : "threshold cannot be negative";
+        parallelThreshold = threshold;
+    }
+
+    /** Returns the parallel threshold, or {@code MAX_VALUE} for backings unsafe to read from several threads. */
+    private int parallelThreshold() {
+        boolean concurrentReads = tasks instanceof ArrayList || tasks instanceof PersistentVector
+                || tasks instanceof ColumnarTaskList || tasks instanceof TreeList;
+        return concurrentReads ? parallelThreshold : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Maps ids from an index back to tasks, in list order.
+     *
+     * @param sortedIds ids in increasing order; ids of removed tasks are skipped
+     */
+    private List<Task> byIds(int[] sortedIds) {
+        List<Task> out = new ArrayList<>(sortedIds.length);
+        for (int id : sortedIds) {
+            int position = ids.positionOf(id);
+            if (position >= 0) { // else removed since it was indexed
+                out.add(tasks.get(position));
+            }
+        }
+        return out;
+    }
+
+    /** Maps ranked ids from an index back to tasks, keeping the ranking. */
+    private List<Task> byRank(int[] rankedIds) {
+        List<Task> out = new ArrayList<>(rankedIds.length);
+        for (int id : rankedIds) {
+            Task t = byId(id);
+            if (t != null) out.add(t);
+        }
+        return out;
+    }
+
+    /** Returns the task with the given id, or {@code null} if it was removed. */
+    private Task byId(int id) {
+        int position = ids.positionOf(id);
+        return position < 0 ? null : tasks.get(position);
+    }
+
+    /** Returns the ids, starting over (and dropping every index) if the list changed behind our back. */
+    private TaskIds ids() {
+        if (ids == null || ids.size() != tasks.size()) {
+            ids = new TaskIds(tasks.size());
+            trigrams = null;
+            dates = null;
+            words = null;
+        }
+        return ids;
+    }
+
+    /** Returns the trigram index, building it if missing or mostly stale. */
+    private TrigramIndex trigramIndex() {
+        TaskIds current = ids();
+        if (trigrams == null || trigrams.removedCount() > tasks.size()) {
+            trigrams = new TrigramIndex();
+            int i = 0;
+            for (Task t : tasks) {
+                trigrams.add(current.idAt(i++), t.getTaskName().toLowerCase());
+            }
+        }
+        return trigrams;
+    }
+
+    /** Returns the word search index, building it if missing. */
+    private SearchIndex searchIndex() {
+        TaskIds current = ids();
+        if (words == null) {
+            words = new SearchIndex();
+            int i = 0;
+            for (Task t : tasks) {
+                words.add(current.idAt(i++), t.getTaskName());
+            }
+        }
+        return words;
+    }
+
+    /** Returns the date index, building it if missing. */
+    private DateIndex dateIndex() {
+        TaskIds current = ids();
+        if (dates == null) {
+            dates = new DateIndex();
+            int i = 0;
+            for (Task t : tasks) {
+                dates.add(current.idAt(i++), t);
+            }
+        }
+        return dates;
+    }
+
 }
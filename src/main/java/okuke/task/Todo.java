@@ -24,13 +24,13 @@ public class Todo extends Task {
     }
 
     /**
-     * Returns the display form for a Todo.
+     * Builds the display form for a Todo.
      * Example: "[T][X] read book"
      *
      * @return type-prefixed display string
      */
     @Override
-    public String toString() {
-        return this.getType() + super.toString();
+    protected String render() {
+        return this.getType() + super.render();
     }
 }
@@ -0,0 +1,278 @@
+package okuke.task;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * A list stored as an order-statistic tree: every node knows the size of its
+ * subtree, so the element at a position is found by walking down from the root.
+ * Reading, inserting and removing at any position therefore cost O(log n) instead
+ * of the O(n) shift of an {@link java.util.ArrayList}.
+ *
+ * <p>The tree is a randomized binary search tree keyed by position: joins pick
+ * which root to keep with probability proportional to subtree size, which keeps
+ * the expected depth logarithmic whatever the order of edits. Iteration walks the
+ * tree in order and is linear overall.</p>
+ *
+ * @param <E> element type; {@code null} elements are allowed
+ */
+final class TreeList<E> extends AbstractList<E> {
+    private final SplittableRandom random = new SplittableRandom(0x7EE);
+    private Node<E> root;
+
+    TreeList() { }
+
+    /**
+     * Creates a list holding {@code initial} in iteration order, built balanced in O(n).
+     *
+     * @param initial the elements to copy
+     */
+    TreeList(Collection<? extends E> initial) {
+        @SuppressWarnings("unchecked")
+        E[] values = (E[]) initial.toArray();
+        root = build(values, 0, values.length);
+    }
+
+    private static <E> Node<E> build(E[] values, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Node<E> n = new Node<>(values[mid]);
+        n.left = build(values, from, mid);
+        n.right = build(values, mid + 1, to);
+        n.update();
+        return n;
+    }
+
+    @Override
+    public int size() { return size(root); }
+
+    @Override
+    public E get(int index) {
+        return node(index).value;
+    }
+
+    @Override
+    public E set(int index, E value) {
+        Node<E> n = node(index);
+        E old = n.value;
+        n.value = value;
+        return old;
+    }
+
+    @Override
+    public void add(int index, E value) {
+        checkIndex(index, size() + 1);
+        root = insert(root, index, new Node<>(value));
+        modCount++;
+    }
+
+    @Override
+    public E remove(int index) {
+        checkIndex(index, size());
+        Node<E> parent = null;
+        Node<E> n = root;
+        while (true) {
+            n.size--; // every node on the path loses one descendant
+            int leftSize = size(n.left);
+            if (index < leftSize) {
+                parent = n;
+                n = n.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                parent = n;
+                n = n.right;
+            } else {
+                break;
+            }
+        }
+        Node<E> joined = join(n.left, n.right);
+        if (parent == null) {
+            root = joined;
+        } else if (parent.left == n) {
+            parent.left = joined;
+        } else {
+            parent.right = joined;
+        }
+        modCount++;
+        return n.value;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new InOrder(0);
+    }
+
+    private Node<E> node(int index) {
+        checkIndex(index, size());
+        Node<E> n = root;
+        while (true) {
+            int leftSize = size(n.left);
+            if (index < leftSize) {
+                n = n.left;
+            } else if (index == leftSize) {
+                return n;
+            } else {
+                index -= leftSize + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    /** Inserts {@code n} so that it ends up at {@code index} of the subtree. */
+    private Node<E> insert(Node<E> t, int index, Node<E> n) {
+        // The new node becomes the root of this subtree with probability 1/(size+1).
+        if (t == null || random.nextInt(t.size + 1) == 0) {
+            splitInto(t, index, n);
+            n.update();
+            return n;
+        }
+        int leftSize = size(t.left);
+        if (index <= leftSize) {
+            t.left = insert(t.left, index, n);
+        } else {
+            t.right = insert(t.right, index - leftSize - 1, n);
+        }
+        t.size++;
+        return t;
+    }
+
+    /** Splits {@code t} into its first {@code index} elements and the rest, as the children of {@code into}. */
+    private static <E> void splitInto(Node<E> t, int index, Node<E> into) {
+        if (t == null) {
+            into.left = null;
+            into.right = null;
+            return;
+        }
+        int leftSize = size(t.left);
+        if (index <= leftSize) {
+            splitInto(t.left, index, into);
+            t.left = into.right;
+            t.update();
+            into.right = t;
+        } else {
+            splitInto(t.right, index - leftSize - 1, into);
+            t.right = into.left;
+            t.update();
+            into.left = t;
+        }
+    }
+
+    /** Concatenates two subtrees, keeping each root with probability proportional to its size. */
+    private Node<E> join(Node<E> a, Node<E> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (random.nextInt(a.size + b.size) < a.size) {
+            a.right = join(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = join(a, b.left);
+        b.update();
+        return b;
+    }
+
+    private static int size(Node<?> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+
+    private static final class Node<E> {
+        E value;
+        int size = 1;
+        Node<E> left;
+        Node<E> right;
+
+        Node(E value) {
+            this.value = value;
+        }
+
+        void update() {
+            size = 1 + TreeList.size(left) + TreeList.size(right);
+        }
+    }
+
+    /** In-order walk with an explicit stack of the ancestors still to visit. */
+    private final class InOrder implements Iterator<E> {
+        private final ArrayDeque<Node<E>> pending = new ArrayDeque<>();
+        private int cursor;
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+
+        InOrder(int start) {
+            seek(start);
+        }
+
+        /** Fills the stack so that its top is the node at {@code index}. */
+        private void seek(int index) {
+            pending.clear();
+            cursor = index;
+            Node<E> n = root;
+            while (n != null) {
+                int leftSize = size(n.left);
+                if (index < leftSize) {
+                    pending.push(n);
+                    n = n.left;
+                } else if (index == leftSize) {
+                    pending.push(n);
+                    return;
+                } else {
+                    index -= leftSize + 1;
+                    n = n.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (pending.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<E> n = pending.pop();
+            for (Node<E> c = n.right; c != null; c = c.left) {
+                pending.push(c);
+            }
+            lastReturned = cursor++;
+            return n.value;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            TreeList.this.remove(lastReturned);
+            expectedModCount = modCount;
+            seek(lastReturned);
+            lastReturned = -1;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package okuke.task;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inverted index from each three-character substring of a lowercased task name to
+ * the ids (see {@link TaskIds}) of the tasks containing it.
+ *
+ * <p>Every trigram of a search needle must occur in any name that contains it, so
+ * intersecting their posting lists yields a superset of the matches; callers
+ * confirm each candidate with the real substring test. Ids are appended in
+ * increasing order, which keeps every posting list sorted. Removed ids are left
+ * in place and counted, and callers rebuild the index once they pile up.</p>
+ */
+final class TrigramIndex {
+    /** Needles shorter than this cannot use the index. */
+    static final int GRAM = 3;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private int removed;
+
+    /**
+     * Indexes the name of a newly appended task.
+     *
+     * @param id            the task's id; larger than every id added before
+     * @param lowerCaseName the task name, already lowercased
+     */
+    void add(int id, String lowerCaseName) {
+        for (int i = 0; i + GRAM <= lowerCaseName.length(); i++) {
+            postings.computeIfAbsent(key(lowerCaseName, i), k -> new Postings()).add(id);
+        }
+    }
+
+    /** Notes that one indexed task is gone; its id stays in the postings. */
+    void remove() {
+        removed++;
+    }
+
+    int removedCount() { return removed; }
+
+    /**
+     * Returns the ids of tasks whose lowercased names contain every trigram of {@code needle}.
+     *
+     * @param needle lowercased search string of at least {@link #GRAM} characters
+     * @return candidate ids in increasing order, possibly including removed ones
+     */
+    int[] candidates(String needle) {
+        assert needle.length() >= GRAM : "needle too short for the index";
+        Postings[] lists = new Postings[needle.length() - GRAM + 1];
+        for (int i = 0; i < lists.length; i++) {
+            Postings p = postings.get(key(needle, i));
+            if (p == null) {
+                return new int[0];
+            }
+            lists[i] = p;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int count = result.length;
+        for (int l = 1; l < lists.length && count > 0; l++) {
+            if (lists[l] == lists[l - 1]) continue; // repeated trigram
+            count = retainAll(result, count, lists[l]);
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /** Keeps the first {@code count} ids of {@code ids} that also occur in {@code other}. */
+    private static int retainAll(int[] ids, int count, Postings other) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count; i++) {
+            int at = Arrays.binarySearch(other.ids, from, other.size, ids[i]);
+            if (at >= 0) {
+                ids[kept++] = ids[i];
+                from = at + 1;
+            } else {
+                from = -at - 1;
+            }
+        }
+        return kept;
+    }
+
+    private static long key(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /** Sorted, duplicate-free ids sharing one trigram. */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return; // trigram repeats within one name
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
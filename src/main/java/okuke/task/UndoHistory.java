@@ -0,0 +1,103 @@
+package okuke.task;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Versions of a {@link TaskList} for undo and redo, each one a {@link TaskList#snapshot()}.
+ *
+ * <p>A version is charged the memory that only it holds, estimated when the list moves
+ * on from it (see {@link TaskList#bytesReplaced()}). With structure shared
+ * between versions that is the handful of nodes and tasks each command replaced. The
+ * oldest versions are dropped once the total exceeds the budget; the current version
+ * is shared with the live list and costs nothing.</p>
+ */
+final class UndoHistory {
+    private final TaskList tasks;
+    private final long budgetBytes;
+    private final ArrayDeque<Version> undoable = new ArrayDeque<>(); // newest first
+    private final ArrayDeque<Version> redoable = new ArrayDeque<>(); // next first
+    private Version current;
+    private long editsAtCurrent;
+    private long retainedBytes;
+
+    private static final class Version {
+        final List<Task> tasks;
+        long replacedAtStart; // the list's bytesReplaced() when this became current
+        long bytes;
+
+        Version(List<Task> tasks) {
+            this.tasks = tasks;
+        }
+    }
+
+    /**
+     * Starts a history whose only version is the current contents of {@code tasks}.
+     *
+     * @param tasks       the list to keep versions of
+     * @param budgetBytes estimated memory the older versions may hold
+     */
+    UndoHistory(TaskList tasks, long budgetBytes) {
+        this.tasks = tasks;
+        this.budgetBytes = budgetBytes;
+        this.current = new Version(tasks.snapshot());
+        this.current.replacedAtStart = tasks.bytesReplaced();
+        this.editsAtCurrent = tasks.edits();
+    }
+
+    /** Estimated memory held by the versions other than the current one. */
+    long retainedBytes() { return retainedBytes; }
+
+    void checkpoint() {
+        if (tasks.edits() == editsAtCurrent) {
+            return;
+        }
+        for (Version v : redoable) {
+            retainedBytes -= v.bytes;
+        }
+        redoable.clear();
+        long replaced = tasks.bytesReplaced();
+        keep(undoable, current, replaced - current.replacedAtStart + tasks.bytesOwned(current.tasks));
+        current = new Version(tasks.snapshot());
+        current.replacedAtStart = replaced;
+        editsAtCurrent = tasks.edits();
+        while (retainedBytes > budgetBytes && !undoable.isEmpty()) {
+            retainedBytes -= undoable.removeLast().bytes;
+        }
+    }
+
+    boolean undo() {
+        checkpoint(); // changes made since the last checkpoint become redoable
+        return move(undoable, redoable);
+    }
+
+    boolean redo() {
+        if (tasks.edits() != editsAtCurrent) {
+            checkpoint(); // which also drops the redoable versions
+            return false;
+        }
+        return move(redoable, undoable);
+    }
+
+    /** Restores the first version of {@code from} and keeps the current one at the front of {@code to}. */
+    private boolean move(ArrayDeque<Version> from, ArrayDeque<Version> to) {
+        Version target = from.poll();
+        if (target == null) {
+            return false;
+        }
+        retainedBytes -= target.bytes;
+        // The two versions differ by the same changes whichever way round they are held.
+        keep(to, current, target.bytes);
+        tasks.restore(target.tasks);
+        current = target;
+        current.replacedAtStart = tasks.bytesReplaced();
+        editsAtCurrent = tasks.edits();
+        return true;
+    }
+
+    private void keep(ArrayDeque<Version> stack, Version v, long bytes) {
+        v.bytes = bytes;
+        retainedBytes += bytes;
+        stack.push(v);
+    }
+}
@@ -61,15 +61,44 @@ public class Gui extends Ui {
     @Override
     public void showUnmark(Task t) { line(); out.append("OK, I've marked this task as not done yet:\n  ").append(t).append('\n'); line(); }
 
+    @Override
+    public void showDeletedMany(int count, TaskList tasks) {
+        line();
+        out.append("Noted. I've removed ").append(count).append(" tasks.\n");
+        out.append("Now you have ").append(tasks.size()).append(" tasks in the list.\n");
+        line();
+    }
+
+    @Override
+    public void showUndone(boolean undone, TaskList tasks) {
+        line();
+        out.append(undone ? "Undone! Now you have " + tasks.size() + " tasks in the list.\n" : "Nothing to undo.\n");
+        line();
+    }
+
+    @Override
+    public void showRedone(boolean redone, TaskList tasks) {
+        line();
+        out.append(redone ? "Redone! Now you have " + tasks.size() + " tasks in the list.\n" : "Nothing to redo.\n");
+        line();
+    }
+
+    @Override
+    public void showMarkedMany(int count) { line(); out.append("Nice! I've marked ").append(count).append(" tasks as done.\n"); line(); }
+
+    @Override
+    public void showUnmarkedMany(int count) { line(); out.append("OK, I've marked ").append(count).append(" tasks as not done yet.\n"); line(); }
+
     @Override
     public void showList(TaskList tasks) {
         line();
         if (tasks.size() == 0) {
             out.append("Your list is empty.\n");
         } else {
+            out.ensureCapacity(out.length() + rowsCapacity(tasks.size()));
             out.append("Here are the tasks in your list:\n");
             for (int i = 0; i < tasks.size(); i++) {
-                out.append(String.format("%d.%s%n", i + 1, tasks.get(i)));
+                out.append(i + 1).append('.').append(tasks.get(i)).append(System.lineSeparator());
             }
         }
         line();
@@ -0,0 +1,110 @@
+package okuke.ui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Reads lines from a byte stream through one large buffer, without the regex
+ * matching {@link java.util.Scanner#nextLine()} does per line.
+ *
+ * <p>Lines end at {@code \n}, {@code \r\n} or a lone {@code \r}; the terminator is
+ * dropped. Only the bytes of each line are decoded, so the charset must encode those
+ * three characters as the single bytes they are in ASCII, as UTF-8 and the usual
+ * platform charsets do. A line longer than the buffer grows it.</p>
+ *
+ * <p>A read blocks only until the stream has some bytes, so lines typed at a
+ * terminal are returned as they arrive.</p>
+ */
+final class LineReader {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final InputStream in;
+    private final Charset charset;
+    private byte[] buf; // allocated on the first read
+    private int pos;
+    private int limit;
+    private boolean afterCr; // the last line ended in '\r'; skip a '\n' right after it
+    private boolean eof;
+
+    /**
+     * Creates a reader over {@code in}.
+     *
+     * @param in      the stream to read; not closed by this reader
+     * @param charset how the stream's bytes encode text
+     */
+    LineReader(InputStream in, Charset charset) {
+        this.in = in;
+        this.charset = charset;
+    }
+
+    /**
+     * Returns the next line, without its terminator.
+     *
+     * @return the line, or {@code null} once the input is used up
+     * @throws IOException if the stream cannot be read
+     */
+    String readLine() throws IOException {
+        if (afterCr) {
+            afterCr = false;
+            if ((pos < limit || fill()) && buf[pos] == '\n') {
+                pos++;
+            }
+        }
+        int scanned = pos; // bytes in [pos, scanned) hold no terminator
+        while (true) {
+            for (int i = scanned; i < limit; i++) {
+                byte b = buf[i];
+                if (b == '\n' || b == '\r') {
+                    String line = new String(buf, pos, i - pos, charset);
+                    pos = i + 1;
+                    afterCr = b == '\r';
+                    return line;
+                }
+            }
+            scanned = limit - pos; // fill() moves the pending bytes to the front
+            if (!fill()) {
+                if (pos == limit) {
+                    return null;
+                }
+                String last = new String(buf, pos, limit - pos, charset); // no terminator at the end
+                pos = limit;
+                return last;
+            }
+        }
+    }
+
+    /**
+     * Reads more bytes after the unconsumed ones, first moving those to the front
+     * of the buffer, or to a larger one if they fill it.
+     *
+     * @return false at the end of the stream
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (buf == null) {
+            buf = new byte[BUFFER_BYTES];
+        }
+        int pending = limit - pos;
+        if (pending == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        } else if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, pending);
+        }
+        pos = 0;
+        limit = pending;
+        int n;
+        do {
+            n = in.read(buf, limit, buf.length - limit);
+        } while (n == 0);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+}
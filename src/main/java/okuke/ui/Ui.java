@@ -3,21 +3,35 @@ package okuke.ui;
 import okuke.task.Task;
 import okuke.task.TaskList;
 
-import java.util.Scanner;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 
 /**
  * Handles all user-facing console I/O for OKuke.
  * Reads commands and prints formatted responses.
+ *
+ * <p>Output is buffered rather than written line by line to the auto-flushing
+ * {@code System.out}: it goes out when the buffer fills, before the next prompt is
+ * read in {@link #readCommand()}, and on {@link #flush()}.</p>
  */
 public class Ui {
-    private final Scanner scanner = new Scanner(System.in);
+    /** Typical length of one numbered task row, used to pre-size list builders. */
+    private static final int ROW_CHARS = 48;
+    /** Largest pre-sized builder; longer lists grow it as usual. */
+    private static final int MAX_PRESIZE = 1 << 24;
+
+    private final LineReader input = new LineReader(System.in, Charset.defaultCharset());
+    private final PrintWriter console = new PrintWriter(new BufferedWriter(new StdoutWriter()));
 
     /**
      * Prints the welcome banner.
      */
     public void showWelcome() {
-        System.out.println("Hello! I'm OKuke.");
-        System.out.println("What can I do for you?");
+        console.println("Hello! I'm OKuke.");
+        console.println("What can I do for you?");
         showLine();
     }
 
@@ -25,24 +39,39 @@ public class Ui {
      * Prints the goodbye message.
      */
     public void showBye() {
-        System.out.println("Bye. Hope to see you again soon!");
+        console.println("Bye. Hope to see you again soon!");
     }
 
     /**
      * Reads a line of user input from the console.
      * Leading/trailing whitespace may be trimmed by the caller/implementation.
      *
-     * @return the raw command string entered by the user
+     * @return the raw command string entered by the user, or {@code null} at the end
+     *         of input, e.g. when a piped command file is used up
      */
     public String readCommand() {
-        return scanner.nextLine().trim();
+        flush(); // the reply to the last command must be visible before we wait for input
+        try {
+            String line = input.readLine();
+            return line == null ? null : line.trim();
+        } catch (IOException e) {
+            System.err.println("[okuke.ui.Ui] Failed to read input: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes out everything printed so far. Call before exiting.
+     */
+    public void flush() {
+        console.flush();
     }
 
     /**
      * Prints a visual divider line separating UI sections.
      */
     public void showLine() {
-        System.out.println("____________________________________________________________");
+        console.println("____________________________________________________________");
     }
 
     /**
@@ -52,7 +81,7 @@ public class Ui {
      */
     public void showLoadingError(String msg) {
         showLine();
-        System.out.println(msg);
+        console.println(msg);
         showLine();
     }
 
@@ -63,7 +92,7 @@ public class Ui {
      */
     public void showError(String message) {
         showLine();
-        System.out.println(message);
+        console.println(message);
         showLine();
     }
 
@@ -76,8 +105,8 @@ public class Ui {
      */
     public void showAdded(Task task, TaskList tasks) {
         showLine();
-        System.out.println("added: " + task.getTaskName());
-        System.out.println("Now you have " + tasks.size() + " tasks in the list.");
+        console.println("added: " + task.getTaskName());
+        console.println("Now you have " + tasks.size() + " tasks in the list.");
         showLine();
     }
 
@@ -90,9 +119,9 @@ public class Ui {
      */
     public void showDeleted(Task removed, TaskList tasks) {
         showLine();
-        System.out.println("Noted. I've removed this okuke.task:");
-        System.out.println("  " + removed);
-        System.out.println("Now you have " + tasks.size() + " tasks in the list.");
+        console.println("Noted. I've removed this okuke.task:");
+        console.println("  " + removed);
+        console.println("Now you have " + tasks.size() + " tasks in the list.");
         showLine();
     }
 
@@ -103,8 +132,8 @@ public class Ui {
      */
     public void showMark(Task t) {
         showLine();
-        System.out.println("Nice! I've marked this okuke.task as done:");
-        System.out.println("  " + t);
+        console.println("Nice! I've marked this okuke.task as done:");
+        console.println("  " + t);
         showLine();
     }
 
@@ -115,8 +144,76 @@ public class Ui {
      */
     public void showUnmark(Task t) {
         showLine();
-        System.out.println("OK, I've marked this okuke.task as not done yet:");
-        System.out.println("  " + t);
+        console.println("OK, I've marked this okuke.task as not done yet:");
+        console.println("  " + t);
+        showLine();
+    }
+
+    /**
+     * Prints a confirmation that several tasks were deleted at once,
+     * followed by the current task count.
+     *
+     * @param count number of tasks removed
+     * @param tasks the list containing the remaining tasks (for count)
+     */
+    public void showDeletedMany(int count, TaskList tasks) {
+        showLine();
+        console.println("Noted. I've removed " + count + " tasks.");
+        console.println("Now you have " + tasks.size() + " tasks in the list.");
+        showLine();
+    }
+
+    /**
+     * Prints the outcome of an undo, followed by the current task count.
+     *
+     * @param undone whether there was a change to undo
+     * @param tasks  the list after undoing (for count)
+     */
+    public void showUndone(boolean undone, TaskList tasks) {
+        showLine();
+        if (undone) {
+            console.println("Undone! Now you have " + tasks.size() + " tasks in the list.");
+        } else {
+            console.println("Nothing to undo.");
+        }
+        showLine();
+    }
+
+    /**
+     * Prints the outcome of a redo, followed by the current task count.
+     *
+     * @param redone whether there was an undone change to redo
+     * @param tasks  the list after redoing (for count)
+     */
+    public void showRedone(boolean redone, TaskList tasks) {
+        showLine();
+        if (redone) {
+            console.println("Redone! Now you have " + tasks.size() + " tasks in the list.");
+        } else {
+            console.println("Nothing to redo.");
+        }
+        showLine();
+    }
+
+    /**
+     * Prints a confirmation that several tasks were marked done at once.
+     *
+     * @param count number of tasks marked
+     */
+    public void showMarkedMany(int count) {
+        showLine();
+        console.println("Nice! I've marked " + count + " tasks as done.");
+        showLine();
+    }
+
+    /**
+     * Prints a confirmation that several tasks were unmarked at once.
+     *
+     * @param count number of tasks unmarked
+     */
+    public void showUnmarkedMany(int count) {
+        showLine();
+        console.println("OK, I've marked " + count + " tasks as not done yet.");
         showLine();
     }
 
@@ -129,18 +226,20 @@ public class Ui {
     public void showList(TaskList tasks) {
         showLine();
         if (tasks.size() == 0) {
-            System.out.println("Your list is empty.");
+            console.println("Your list is empty.");
         } else {
-            System.out.println("Here are the tasks in your list:");
+            StringBuilder sb = rowsBuilder(tasks.size());
+            sb.append("Here are the tasks in your list:").append(System.lineSeparator());
             for (int i = 0; i < tasks.size(); i++) {
-                System.out.printf("%d.%s%n", i + 1, tasks.get(i));
+                sb.append(i + 1).append('.').append(tasks.get(i)).append(System.lineSeparator());
             }
+            console.print(sb);
         }
         showLine();
     }
 
     public void showHelp(String msg) {
-        System.out.println(msg);
+        console.println(msg);
     }
 
     /**
@@ -150,7 +249,7 @@ public class Ui {
      */
     public void showItemsHeader(String title) {
         showLine();
-        System.out.println(title);
+        console.println(title);
     }
 
     /**
@@ -159,4 +258,42 @@ public class Ui {
     public void showItemsFooter() {
         showLine();
     }
+
+    /**
+     * Returns an empty builder with room for about {@code rows} numbered task lines,
+     * so appending a whole list to it rarely has to grow it.
+     *
+     * @param rows number of lines that will be appended
+     * @return a pre-sized builder
+     */
+    public static StringBuilder rowsBuilder(int rows) {
+        return new StringBuilder(rowsCapacity(rows));
+    }
+
+    /** Characters to reserve for {@code rows} numbered task lines and a header. */
+    protected static int rowsCapacity(int rows) {
+        return (int) Math.min((long) rows * ROW_CHARS + ROW_CHARS, MAX_PRESIZE);
+    }
+
+    /**
+     * Hands buffered text to {@code System.out} in large chunks. The stream is looked up
+     * on every write, as {@code System.out.println} would, and going through its own
+     * {@code print} keeps its character encoding, so the bytes are the same.
+     */
+    private static final class StdoutWriter extends Writer {
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            System.out.print(new String(chars, offset, length));
+        }
+
+        @Override
+        public void flush() {
+            System.out.flush();
+        }
+
+        @Override
+        public void close() {
+            flush(); // System.out is not ours to close
+        }
+    }
 }
@@ -0,0 +1,271 @@
+package okuke.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Hand-written parser for the layouts accepted by {@link DateTimeUtil#parseFlexibleDateTime(String)}.
+ *
+ * <p>One scan normalises whitespace and notes the first date separator and whether a
+ * {@code T} or a space follows the date; that picks the layout, which is then parsed
+ * field by field. Fields, widths, signs and range checks follow the
+ * {@link java.time.format.DateTimeFormatter} patterns this replaces, so exactly the
+ * same inputs are accepted with the same results:</p>
+ * <ul>
+ *   <li>{@code yyyy-MM-dd}, {@code yyyy-MM-dd'T'HH:mm[:ss[.fffffffff]]}: ISO, strict.</li>
+ *   <li>{@code yyyy-MM-dd HHmm}, {@code d/M/yyyy}, {@code d-M-yyyy}, {@code d.M.yyyy},
+ *       each optionally with {@code " HHmm"}: smart, so day 29 to 31 is clamped to the
+ *       end of a shorter month and {@code 2400} is midnight of the next day.</li>
+ * </ul>
+ * Anything else fails with one {@link DateTimeParseException} that carries no stack trace.
+ */
+final class DateTimeScanner {
+    private static final int MAX_DIGITS = 19; // widest value DateTimeFormatter parses
+    private static final long NO_VALUE = Long.MIN_VALUE;
+
+    private final char[] in;
+    private final int length;
+    private int pos;
+
+    private DateTimeScanner(String original) {
+        this.in = new char[original.length()];
+        // Same as trim() followed by replaceAll("\\s+", " ").
+        int start = 0;
+        int end = original.length();
+        while (start < end && original.charAt(start) <= ' ') start++;
+        while (end > start && original.charAt(end - 1) <= ' ') end--;
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            char c = original.charAt(i);
+            if (isRegexSpace(c)) {
+                if (in[n - 1] != ' ') in[n++] = ' ';
+            } else {
+                in[n++] = c;
+            }
+        }
+        this.length = n;
+    }
+
+    /**
+     * Parses {@code s} as described in the class comment.
+     *
+     * @param s the input
+     * @return the date-time, at 00:00 when no time is given
+     * @throws DateTimeParseException if no layout matches
+     */
+    static LocalDateTime parse(String s) {
+        LocalDateTime parsed = new DateTimeScanner(s).parse();
+        if (parsed == null) {
+            throw new UnrecognizedDateTime(s);
+        }
+        return parsed;
+    }
+
+    private LocalDateTime parse() {
+        // The first separator after the leading sign and digits tells the layout family.
+        int i = 0;
+        if (i < length && (in[i] == '+' || in[i] == '-')) i++;
+        while (i < length && isDigit(in[i])) i++;
+        if (i == length) {
+            return null;
+        }
+        char separator = in[i];
+        if (separator == '/' || separator == '.') {
+            return dayFirst(separator);
+        }
+        if (separator != '-') {
+            return null;
+        }
+        // In pattern order: yyyy-MM-dd HHmm, ISO date-time, d-M-yyyy HHmm, ISO date, d-M-yyyy.
+        LocalDateTime parsed = yearFirst();
+        if (parsed == null) {
+            parsed = dayFirst('-');
+        }
+        return parsed;
+    }
+
+    /** {@code yyyy-MM-dd HHmm} (smart), ISO date-time or ISO date (strict). */
+    private LocalDateTime yearFirst() {
+        pos = 0;
+        char sign = sign();
+        int yearStart = pos;
+        long year = digits(1, MAX_DIGITS);
+        int yearDigits = pos - yearStart;
+        if (year == NO_VALUE || !literal('-')) return null;
+        long month = digits(2, 2);
+        if (month == NO_VALUE || !literal('-')) return null;
+        long day = digits(2, 2);
+        if (day == NO_VALUE) return null;
+
+        if (pos == length) {
+            return isoYearOk(sign, yearDigits) ? strictDate(sign == '-' ? -year : year, month, day) : null;
+        }
+        if (in[pos] == ' ') {
+            pos++;
+            long[] hhmm = hourMinute();
+            if (hhmm == null || !yearOfEraOk(sign, yearDigits)) return null;
+            return smart(year, month, day, hhmm[0], hhmm[1]);
+        }
+        if (in[pos] == 'T' || in[pos] == 't') {
+            pos++;
+            return isoYearOk(sign, yearDigits) ? isoTime(sign == '-' ? -year : year, month, day) : null;
+        }
+        return null;
+    }
+
+    /** {@code HH:mm[:ss[.fffffffff]]} to the end of input, strict. */
+    private LocalDateTime isoTime(long year, long month, long day) {
+        long hour = digits(2, 2);
+        if (hour == NO_VALUE || !literal(':')) return null;
+        long minute = digits(2, 2);
+        if (minute == NO_VALUE) return null;
+        long second = 0;
+        long nanos = 0;
+        if (pos < length && in[pos] == ':') {
+            pos++;
+            second = digits(2, 2);
+            if (second == NO_VALUE) return null;
+            if (pos < length && in[pos] == '.') {
+                pos++;
+                int fractionStart = pos;
+                while (pos < length && isDigit(in[pos])) {
+                    if (pos - fractionStart == 9) return null;
+                    nanos = nanos * 10 + (in[pos++] - '0');
+                }
+                for (int scale = pos - fractionStart; scale < 9; scale++) nanos *= 10;
+            }
+        }
+        if (pos != length || hour > 23 || minute > 59 || second > 59) return null;
+        LocalDateTime date = strictDate(year, month, day);
+        return date == null ? null : date.withHour((int) hour).withMinute((int) minute)
+                .withSecond((int) second).withNano((int) nanos);
+    }
+
+    /** {@code d<sep>M<sep>yyyy}, optionally followed by {@code " HHmm"}; smart. */
+    private LocalDateTime dayFirst(char separator) {
+        pos = 0;
+        long day = digits(1, MAX_DIGITS);
+        if (day == NO_VALUE || !literal(separator)) return null;
+        long month = digits(1, MAX_DIGITS);
+        if (month == NO_VALUE || !literal(separator)) return null;
+        char sign = sign();
+        int yearStart = pos;
+        long year = digits(1, MAX_DIGITS);
+        if (year == NO_VALUE || !yearOfEraOk(sign, pos - yearStart)) return null;
+        if (pos == length) {
+            return smart(year, month, day, 0, 0);
+        }
+        if (!literal(' ')) return null;
+        long[] hhmm = hourMinute();
+        return hhmm == null ? null : smart(year, month, day, hhmm[0], hhmm[1]);
+    }
+
+    /** {@code HHmm} to the end of input; ranges are checked when resolving. */
+    private long[] hourMinute() {
+        long hour = digits(2, 2);
+        long minute = hour == NO_VALUE ? NO_VALUE : digits(2, 2);
+        return minute == NO_VALUE || pos != length ? null : new long[] {hour, minute};
+    }
+
+    /** Smart resolution of a year-of-era (CE), month, day, hour and minute. */
+    private static LocalDateTime smart(long yearOfEra, long month, long day, long hour, long minute) {
+        if (yearOfEra < 1 || yearOfEra > Year.MAX_VALUE || month < 1 || month > 12 || day < 1 || day > 31
+                || minute > 59 || hour > 24 || (hour == 24 && minute != 0)) {
+            return null;
+        }
+        LocalDate first = LocalDate.of((int) yearOfEra, (int) month, 1);
+        LocalDate date = first.withDayOfMonth((int) Math.min(day, first.lengthOfMonth()));
+        if (hour == 24) {
+            if (date.equals(LocalDate.MAX)) return null;
+            return date.plusDays(1).atStartOfDay();
+        }
+        return date.atTime((int) hour, (int) minute);
+    }
+
+    /** Strict ISO date: the day must exist in that month and year. */
+    private static LocalDateTime strictDate(long year, long month, long day) {
+        if (year < Year.MIN_VALUE || year > Year.MAX_VALUE || month < 1 || month > 12 || day < 1) {
+            return null;
+        }
+        LocalDate first = LocalDate.of((int) year, (int) month, 1);
+        return day > first.lengthOfMonth() ? null : first.withDayOfMonth((int) day).atStartOfDay();
+    }
+
+    /**
+     * ISO years have at least four digits; a '+' is required above four and a '-'
+     * allowed for any (but not for zero, which {@link #strictDate} cannot see).
+     */
+    private boolean isoYearOk(char sign, int digits) {
+        if (digits > 10) return false;
+        if (sign == '+') return digits > 4;
+        if (sign == '-') return digits >= 4 && !allZero(digits);
+        return digits == 4;
+    }
+
+    /** {@code yyyy} as a year-of-era: four digits, or a '+' and more; never negative. */
+    private static boolean yearOfEraOk(char sign, int digits) {
+        return sign == '+' ? digits > 4 : sign == 0 && digits == 4;
+    }
+
+    private boolean allZero(int digits) {
+        int start = (in[0] == '-' || in[0] == '+') ? 1 : 0;
+        for (int i = start; i < start + digits; i++) {
+            if (in[i] != '0') return false;
+        }
+        return true;
+    }
+
+    /** Consumes a leading '+' or '-' and returns it, or 0 if there is none. */
+    private char sign() {
+        if (pos < length && (in[pos] == '+' || in[pos] == '-')) {
+            return in[pos++];
+        }
+        return 0;
+    }
+
+    /**
+     * Reads between {@code min} and {@code max} ASCII digits, stopping at {@code max}.
+     * Values too large for any field saturate rather than overflow.
+     *
+     * @return the value, or {@link #NO_VALUE} if there were fewer than {@code min} digits
+     */
+    private long digits(int min, int max) {
+        int start = pos;
+        long value = 0;
+        while (pos < length && pos - start < max && isDigit(in[pos])) {
+            value = Math.min(value * 10 + (in[pos++] - '0'), 1L << 40);
+        }
+        return pos - start < min ? NO_VALUE : value;
+    }
+
+    private boolean literal(char c) {
+        if (pos < length && in[pos] == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /** The characters {@code \s} matches in a regex. */
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /** The one failure this parser reports; cheap because it skips the stack trace. */
+    private static final class UnrecognizedDateTime extends DateTimeParseException {
+        UnrecognizedDateTime(String input) {
+            super("Unrecognized date/time: " + input, input, 0);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
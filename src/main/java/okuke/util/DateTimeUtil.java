@@ -1,10 +1,8 @@
 package okuke.util;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 /**
  * Utility functions for parsing and formatting date/time inputs.
@@ -12,22 +10,11 @@ import java.time.format.DateTimeParseException;
  */
 
 public final class DateTimeUtil {
-    private DateTimeUtil() {}
-
-    private static final DateTimeFormatter[] DATE_TIME_PATTERNS = new DateTimeFormatter[] {
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"),
-            DateTimeFormatter.ISO_LOCAL_DATE_TIME,            // yyyy-MM-dd'T'HH:mm
-            DateTimeFormatter.ofPattern("d/M/yyyy HHmm"),
-            DateTimeFormatter.ofPattern("d-M-yyyy HHmm"),
-            DateTimeFormatter.ofPattern("d.M.yyyy HHmm")
-    };
+    // Formatters are immutable and thread-safe, so one of each is shared by every call.
+    private static final DateTimeFormatter NICE_DATE = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    private static final DateTimeFormatter NICE_DATE_TIME = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm");
 
-    private static final DateTimeFormatter[] DATE_ONLY_PATTERNS = new DateTimeFormatter[] {
-            DateTimeFormatter.ISO_LOCAL_DATE,                 // yyyy-MM-dd
-            DateTimeFormatter.ofPattern("d/M/yyyy"),
-            DateTimeFormatter.ofPattern("d-M-yyyy"),
-            DateTimeFormatter.ofPattern("d.M.yyyy")
-    };
+    private DateTimeUtil() {}
 
     /**
      * Parses a date/time string using several common patterns.
@@ -42,19 +29,16 @@ public final class DateTimeUtil {
      *   <li>d.M.yyyy (and HHmm)</li>
      * </ul>
      *
+     * <p>The input is scanned once by a {@link DateTimeScanner}, which recognises the
+     * layout from its separators and parses only that, instead of trying a formatter
+     * per pattern and catching the failures.</p>
+     *
      * @param s the input string to parse
      * @return parsed LocalDateTime (at 00:00 if time omitted)
      * @throws java.time.format.DateTimeParseException if none of the patterns match
      */
     public static LocalDateTime parseFlexibleDateTime(String s) {
-        String in = s.trim().replaceAll("\\s+", " ");
-        for (DateTimeFormatter f : DATE_TIME_PATTERNS) {
-            try { return LocalDateTime.parse(in, f); } catch (DateTimeParseException ignore) {}
-        }
-        for (DateTimeFormatter f : DATE_ONLY_PATTERNS) {
-            try { return LocalDate.parse(in, f).atStartOfDay(); } catch (DateTimeParseException ignore) {}
-        }
-        throw new DateTimeParseException("Unrecognized date/time: " + s, s, 0);
+        return DateTimeScanner.parse(s);
     }
 
     /**
@@ -67,8 +51,8 @@ public final class DateTimeUtil {
      */
     public static String formatNice(LocalDateTime dt) {
         if (dt.toLocalTime().equals(LocalTime.MIDNIGHT)) {
-            return dt.format(DateTimeFormatter.ofPattern("MMM dd yyyy"));
+            return NICE_DATE.format(dt);
         }
-        return dt.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm"));
+        return NICE_DATE_TIME.format(dt);
     }
 }
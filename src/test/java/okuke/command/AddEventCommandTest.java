@@ -49,6 +49,7 @@ public class AddEventCommandTest {
         );
 
         c.execute(tasks, ui, storage);
+        ui.flush();
 
         String printed = out.toString().toLowerCase();
         assertTrue(printed.contains("added: project meeting"),
@@ -0,0 +1,65 @@
+package okuke.storage;
+
+import okuke.task.Task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LineDecoderTest {
+
+    private static final String[] DATES = {
+        "2025-03-04", "2025-03-04T10:15", "2025-03-04T10:15:30", "2025-03-04T10:15:30.123",
+        "2024-02-29", "2023-02-29", "2025-13-01", "2025-04-31", "2025-3-4", "+12025-01-01",
+        "-2025-01-01", "2025-03-04T24:00", "2025-03-04T10:60", "2025-03-04 10:15", "2025-03-04t10:15",
+        "2025-03-04T10:15:30.1234567890", "", " 2025-03-04 ", "abcd-ef-gh",
+    };
+    private static final String[] SEPARATORS = {" | ", "|", " |  ", "\t|\t", " | | "};
+
+    @Test
+    public void decode_randomLines_matchesParseLine() {
+        Random rnd = new Random(7);
+        LineDecoder decoder = new LineDecoder();
+        for (int i = 0; i < 200_000; i++) {
+            String line = randomLine(rnd);
+            assertEquals(describe(Storage.parseLine(line.trim())), describe(decoder.decode(line)), line);
+        }
+    }
+
+    @Test
+    public void decode_trailingPipe_staysInName() {
+        // The line is trimmed before splitting, so " |" is no longer a separator.
+        assertEquals("Todo T | 0 | read |", describe(new LineDecoder().decode("T | 0 | read |  ")));
+    }
+
+    @Test
+    public void decode_tooManyFields_returnsNull() {
+        assertNull(new LineDecoder().decode("T | 0 | a | b | c | d"));
+    }
+
+    private static String randomLine(Random rnd) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("TDEX".charAt(rnd.nextInt(4)));
+        sb.append(sep(rnd)).append(rnd.nextInt(3));
+        sb.append(sep(rnd)).append(rnd.nextBoolean() ? "name " + rnd.nextInt(100) : "");
+        int extra = rnd.nextInt(4);
+        for (int k = 0; k < extra; k++) {
+            sb.append(sep(rnd)).append(DATES[rnd.nextInt(DATES.length)]);
+        }
+        if (rnd.nextInt(8) == 0) {
+            sb.append("  ");
+        }
+        return sb.toString();
+    }
+
+    private static String sep(Random rnd) {
+        return rnd.nextInt(6) == 0 ? SEPARATORS[rnd.nextInt(SEPARATORS.length)] : " | ";
+    }
+
+    private static String describe(Task t) {
+        return t == null ? "null" : t.getClass().getSimpleName() + " " + Storage.formatLine(t);
+    }
+}
@@ -0,0 +1,120 @@
+package okuke.storage;
+
+import okuke.task.Deadline;
+import okuke.task.Task;
+import okuke.task.TaskList;
+import okuke.task.Todo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PagedTaskListTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void open_matchesEagerLoad_skippingCorruptedLines() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            sb.append(i % 97 == 0 ? "garbage " + i : "T | " + (i % 2) + " | task " + i).append(i % 5 == 0 ? "\r\n" : "\n");
+            if (i % 300 == 0) sb.append("\n");
+        }
+        Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<Task> eager = new ArrayList<>();
+        Storage.readSnapshot(file, eager);
+        List<Task> paged = PagedTaskList.open(file, 2);
+
+        assertEquals(eager.size(), paged.size());
+        for (int i = eager.size() - 1; i >= 0; i--) {
+            assertEquals(eager.get(i).toString(), paged.get(i).toString());
+        }
+    }
+
+    @Test
+    public void markOneBased_survivesPageEviction() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 4 * PagedTaskList.PAGE_SIZE; i++) {
+            initial.add(new Deadline("deadline " + i, LocalDateTime.of(2025, 5, 1, 12, 0)));
+        }
+        Storage.writeSnapshot(file, initial, Storage.Format.TEXT);
+
+        TaskList tasks = TaskList.backedBy(PagedTaskList.open(file, 1));
+        tasks.markOneBased(3);
+        tasks.add(new Todo("new"));
+        tasks.removeOneBased(2);
+        for (Task t : tasks.asList()) {
+            t.getTaskName(); // cycles every page through the one-page cache
+        }
+
+        assertEquals("X", tasks.get(1).getStatus());
+        assertEquals("deadline 2", tasks.get(1).getTaskName());
+        assertEquals("new", tasks.get(tasks.size() - 1).getTaskName());
+        assertEquals(4 * PagedTaskList.PAGE_SIZE, tasks.size());
+    }
+
+    @Test
+    public void remove_pinnedTasks_pinsReused() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            initial.add(new Todo("todo " + i));
+        }
+        Storage.writeSnapshot(file, initial, Storage.Format.TEXT);
+
+        PagedTaskList paged = PagedTaskList.open(file, 1);
+        for (int i = 0; i < 1_000; i++) {
+            paged.add(new Todo("short-lived " + i));
+            paged.remove(paged.size() - 1);
+        }
+        assertEquals(1, paged.pinCapacity());
+
+        paged.add(3, new Todo("a"));
+        paged.add(new Todo("b"));
+        paged.remove(3);
+        paged.set(0, new Todo("c")); // takes the pin "a" left
+        assertEquals(2, paged.pinCapacity());
+        assertEquals("c", paged.get(0).getTaskName());
+        assertEquals("todo 3", paged.get(3).getTaskName());
+        assertEquals("b", paged.get(10).getTaskName());
+    }
+
+    @Test
+    public void save_lazyList_writesSameFileAsEagerList() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            initial.add(new Todo("todo " + i));
+        }
+        Storage.writeSnapshot(file, initial, Storage.Format.TEXT);
+
+        Storage storage = new Storage(file);
+        storage.setLazy(true);
+        TaskList tasks = TaskList.backedBy(storage.loadLazy());
+        tasks.markOneBased(2_500);
+        storage.save(tasks);
+        assertEquals(1, storage.getStats().getBytesWritten());
+
+        tasks.removeOneBased(1);
+        storage.save(tasks);
+
+        Path reference = dir.resolve("reference.txt");
+        initial.get(2_499).setMark();
+        initial.remove(0);
+        Storage.writeSnapshot(reference, initial, Storage.Format.TEXT);
+        assertArrayEquals(Files.readAllBytes(reference), Files.readAllBytes(file));
+    }
+}
@@ -0,0 +1,93 @@
+package okuke.storage;
+
+import okuke.task.Task;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void read_largeFile_matchesSerialLoad() throws IOException {
+        Path file = dir.resolve("OKuke.txt");
+        Files.write(file, randomSnapshot(new Random(42), 120_000).getBytes(StandardCharsets.UTF_8));
+        assertTrue(Files.size(file) > 2L << 20, "file should span several chunks");
+        assertTrue(Files.size(file) < ParallelLoader.THRESHOLD_BYTES, "Storage should take the serial path");
+        assertMatchesSerialLoad(file);
+    }
+
+    @Test
+    public void read_loneCarriageReturns_matchesSerialLoad() throws IOException {
+        Path file = dir.resolve("OKuke.txt");
+        String text = randomSnapshot(new Random(7), 120_000).replace("\r\n", "\r").replace('\n', '\r');
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        assertTrue(Files.size(file) > 2L << 20, "file should span several chunks");
+        assertMatchesSerialLoad(file);
+    }
+
+    private static void assertMatchesSerialLoad(Path file) throws IOException {
+        List<Task> serial = new ArrayList<>();
+        List<Task> parallel = new ArrayList<>();
+        long[] crc = new long[2];
+        String serialErr = captureErr(() -> crc[0] = Storage.readSnapshot(file, serial));
+        String parallelErr = captureErr(() -> crc[1] = ParallelLoader.read(file, parallel));
+
+        assertEquals(serial.size(), parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            assertEquals(serial.get(i).toString(), parallel.get(i).toString());
+        }
+        assertEquals(serialErr, parallelErr, "corrupted lines must be reported with the same numbers");
+        assertEquals(crc[0], crc[1]);
+    }
+
+    private static String randomSnapshot(Random rnd, int lines) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            String done = rnd.nextBoolean() ? "1" : "0";
+            switch (rnd.nextInt(6)) {
+                case 0 -> sb.append("T | ").append(done).append(" | todo ").append(i);
+                case 1 -> sb.append("D | ").append(done).append(" | deadline ").append(i)
+                        .append(" | 2025-0").append(1 + rnd.nextInt(9)).append("-1").append(rnd.nextInt(10));
+                case 2 -> sb.append("E | ").append(done).append(" | event ").append(i)
+                        .append(" | 2025-01-02T10:00:00 | 2025-01-03T11:30:00");
+                case 3 -> sb.append("garbage line ").append(i);
+                case 4 -> sb.append("   ");
+                default -> sb.append("T | ").append(done).append(" | café 任务 ").append(i);
+            }
+            sb.append(rnd.nextInt(10) == 0 ? "\r\n" : "\n");
+        }
+        return sb.toString();
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    private static String captureErr(IoAction action) throws IOException {
+        PrintStream original = System.err;
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+        try {
+            action.run();
+        } finally {
+            System.setErr(original);
+        }
+        return err.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,508 @@
+package okuke.storage;
+
+import okuke.task.Deadline;
+import okuke.task.Task;
+import okuke.task.TaskList;
+import okuke.task.Todo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StorageTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void save_markAndAppend_patchesFileInPlace() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(1_000);
+        Storage storage = new Storage(file);
+        storage.save(tasks);
+        long fullBytes = storage.getStats().getBytesWritten();
+
+        tasks.markOneBased(500);
+        tasks.add(new Todo("appended"));
+        storage.save(tasks);
+
+        long patchBytes = storage.getStats().getBytesWritten() - fullBytes;
+        assertTrue(patchBytes < 100, "only the flag and the new line should be written, was " + patchBytes);
+        assertFileMatchesFullSave(file, tasks.asList());
+    }
+
+    @Test
+    public void load_appendCutMidLine_dropsTheTornTask() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(10);
+        Storage storage = new Storage(file);
+        storage.save(tasks);
+        long committed = Files.size(file);
+        tasks.add(new Todo("read book"));
+        storage.save(tasks);
+        byte[] patched = Files.readAllBytes(file);
+
+        for (boolean lazy : new boolean[] {false, true}) {
+            Files.write(file, Arrays.copyOf(patched, patched.length - 4)); // "...read b"
+            Storage reloaded = new Storage(file);
+            reloaded.setLazy(lazy);
+            List<Task> loaded = lazy ? reloaded.loadLazy() : reloaded.load();
+            assertEquals(sampleList(10).asList().toString(), loaded.toString());
+            assertEquals(committed, Files.size(file), "the torn line is cut off");
+        }
+
+        TaskList again = new TaskList(new Storage(file).load());
+        again.add(new Todo("write book"));
+        new Storage(file).save(again);
+        assertEquals(again.asList().toString(), new Storage(file).load().toString());
+    }
+
+    @Test
+    public void save_afterLoad_patchesScannedSnapshot() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        new Storage(file).save(sampleList(100));
+
+        Storage storage = new Storage(file);
+        TaskList tasks = new TaskList(storage.load());
+        tasks.unmarkOneBased(2);
+        tasks.markOneBased(3);
+        storage.save(tasks);
+
+        assertEquals(2, storage.getStats().getBytesWritten());
+        assertFileMatchesFullSave(file, tasks.asList());
+    }
+
+    @Test
+    public void loadInto_columnarList_roundTripsAndPatches() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList original = sampleList(300);
+        new Storage(file).save(original);
+
+        Storage storage = new Storage(file);
+        TaskList tasks = TaskList.backedBy(storage.load(TaskList.Backing.COLUMNAR.newList()));
+        assertEquals(original.asList().toString(), tasks.asList().toString());
+
+        tasks.markOneBased(7);
+        storage.save(tasks);
+        assertEquals(1, storage.getStats().getBytesWritten());
+        assertFileMatchesFullSave(file, tasks.asList());
+    }
+
+    @Test
+    public void save_afterDelete_rewritesAndStaysPatchable() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(50);
+        Storage storage = new Storage(file);
+        storage.save(tasks);
+
+        tasks.removeOneBased(10);
+        storage.save(tasks);
+        assertFileMatchesFullSave(file, tasks.asList());
+
+        long before = storage.getStats().getBytesWritten();
+        tasks.markOneBased(40);
+        storage.save(tasks);
+        assertEquals(1, storage.getStats().getBytesWritten() - before);
+        assertFileMatchesFullSave(file, tasks.asList());
+    }
+
+    @Test
+    public void convert_gzip_roundTripsAndShrinksFile() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(2_000);
+        Storage storage = new Storage(file);
+        storage.save(tasks);
+        long textSize = Files.size(file);
+
+        storage.convert(tasks.asList(), Storage.Format.GZIP);
+        assertTrue(Files.size(file) * 4 < textSize, "compressed " + Files.size(file) + " vs text " + textSize);
+
+        Storage reopened = new Storage(file);
+        List<Task> loaded = reopened.load();
+        assertEquals(Storage.Format.GZIP, reopened.getFormat());
+        assertEquals(tasks.size(), loaded.size());
+        for (int i = 0; i < loaded.size(); i++) {
+            assertEquals(tasks.get(i).toString(), loaded.get(i).toString());
+        }
+    }
+
+    @Test
+    public void convert_binary_roundTripsAndIsDetectedByHeader() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(500);
+        Storage storage = new Storage(file);
+        storage.save(tasks);
+        assertEquals(Storage.Format.TEXT, Storage.detectFormat(file));
+
+        storage.convert(tasks.asList(), Storage.Format.BINARY);
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(BinaryFormat.MAGIC, header.getInt());
+        assertEquals(BinaryFormat.VERSION, header.getShort());
+        assertEquals(500, header.getInt());
+
+        Storage reopened = new Storage(file);
+        List<Task> loaded = reopened.load();
+        assertEquals(Storage.Format.BINARY, reopened.getFormat());
+        assertEquals(tasks.asList().toString(), loaded.toString());
+
+        reopened.convert(loaded, Storage.Format.TEXT);
+        assertFileMatchesFullSave(file, tasks.asList());
+    }
+
+    @Test
+    public void load_binaryUnknownVersionOrMagic_rejected() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        Storage.writeSnapshot(file, sampleList(3).asList(), Storage.Format.BINARY);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[5] = 99; // version
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> new Storage(file).load());
+
+        bytes[0] = 'T'; // magic: now neither binary nor gzip, so read as (corrupted) text
+        Files.write(file, bytes);
+        assertEquals(Storage.Format.TEXT, Storage.detectFormat(file));
+        assertThrows(IOException.class, () -> BinaryFormat.read(file, new ArrayList<>()));
+    }
+
+    @Test
+    public void load_truncatedOrCorruptBinary_keepsRecordsBeforeTheDamage() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        List<Task> tasks = sampleList(10).asList();
+        Storage.writeSnapshot(file, tasks, Storage.Format.BINARY);
+        byte[] full = Files.readAllBytes(file);
+        Path prefix = dir.resolve("prefix.bin");
+        Storage.writeSnapshot(prefix, tasks.subList(0, 4), Storage.Format.BINARY);
+        int fourRecords = (int) Files.size(prefix); // header has the same size for any count
+
+        Files.write(file, Arrays.copyOf(full, fourRecords + 3));
+        assertEquals(tasks.subList(0, 4).toString(), new Storage(file).load().toString());
+
+        byte[] badType = full.clone();
+        badType[fourRecords] = 'Q';
+        Files.write(file, badType);
+        assertEquals(tasks.subList(0, 4).toString(), new Storage(file).load().toString());
+
+        byte[] badLength = full.clone();
+        badLength[fourRecords + 2] = (byte) 0x80; // name length becomes negative
+        Files.write(file, badLength);
+        assertEquals(tasks.subList(0, 4).toString(), new Storage(file).load().toString());
+
+        byte[] hugeLength = full.clone();
+        ByteBuffer.wrap(hugeLength).putInt(fourRecords + 2, Integer.MAX_VALUE - 16);
+        Files.write(file, hugeLength);
+        assertEquals(tasks.subList(0, 4).toString(), new Storage(file).load().toString());
+
+        byte[] hugeCount = full.clone();
+        ByteBuffer.wrap(hugeCount).putInt(6, Integer.MAX_VALUE - 16);
+        Files.write(file, hugeCount);
+        assertEquals(tasks.toString(), new Storage(file).load().toString());
+    }
+
+    @Test
+    public void save_newGzFile_isCompressed() throws Exception {
+        Path file = dir.resolve("OKuke.txt.gz");
+        Storage storage = new Storage(file);
+        storage.save(sampleList(10));
+        assertEquals(Storage.Format.GZIP, Storage.detectFormat(file));
+    }
+
+    @Test
+    public void recordBatch_journaledBulkDelete_replaysToSameList() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(100);
+        Storage storage = new Storage(file);
+        storage.setJournaled(true);
+        storage.save(tasks);
+
+        BitSet positions = new BitSet();
+        positions.set(3);
+        positions.set(10, 40);
+        positions.set(99);
+        tasks.removeAll(positions);
+        List<Mutation> changes = new ArrayList<>();
+        for (int i = positions.length() - 1; i >= 0; i = positions.previousSetBit(i - 1)) {
+            changes.add(Mutation.deleted(i + 1));
+        }
+        storage.record(tasks, changes);
+
+        Storage reopened = new Storage(file);
+        reopened.setJournaled(true);
+        assertEquals(tasks.asList().toString(), reopened.load().toString());
+    }
+
+    @Test
+    public void record_everyKind_appendsAndReplaysOnSnapshot() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(20);
+        Storage storage = journaled(file);
+        storage.save(tasks);
+        byte[] snapshot = Files.readAllBytes(file);
+
+        Todo added = new Todo("added é");
+        tasks.add(added);
+        storage.record(tasks, Mutation.added(added));
+        tasks.markOneBased(1);
+        storage.record(tasks, Mutation.marked(1));
+        tasks.unmarkOneBased(2);
+        storage.record(tasks, Mutation.unmarked(2));
+        tasks.removeOneBased(5);
+        storage.record(tasks, Mutation.deleted(5));
+
+        assertArrayEquals(snapshot, Files.readAllBytes(file), "journal mode leaves the snapshot alone");
+        assertEquals(List.of("A | T | 0 | added é", "M | 1", "U | 2", "X | 5"),
+                Files.readAllLines(journalOf(file)));
+        assertEquals(tasks.asList().toString(), journaled(file).load().toString());
+    }
+
+    @Test
+    public void load_corruptedJournalRecords_skippedRestApplied() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(10);
+        new Storage(file).save(tasks);
+        Files.write(journalOf(file), List.of("A | T | 0 | kept", "garbage", "A | Q | 0 | bad type",
+                "M | 99", "X | not a number", "Z | 1", "", "M | 1"));
+
+        tasks.add(new Todo("kept"));
+        tasks.markOneBased(1);
+        assertEquals(tasks.asList().toString(), journaled(file).load().toString());
+    }
+
+    @Test
+    public void load_journalCutMidRecord_dropsTheTornRecord() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(20);
+        new Storage(file).save(tasks);
+        long crc = crcOf(file);
+        String nl = System.lineSeparator();
+
+        // "X | 12" cut to "X | 1" would delete the wrong task.
+        Files.writeString(journalOf(file), "U | 2" + nl + "X | 1");
+        Storage storage = journaled(file);
+        List<Task> loaded = storage.load();
+        List<Task> expected = new ArrayList<>(tasks.asList());
+        expected.get(1).unMark(); // sampleList marks task 2
+        assertEquals(expected.toString(), loaded.toString());
+        assertEquals("U | 2" + nl, Files.readString(journalOf(file)), "the torn record is cut off");
+
+        // A later append starts on a clean line.
+        TaskList reloaded = new TaskList(loaded);
+        Todo added = new Todo("after the crash");
+        reloaded.add(added);
+        storage.record(reloaded, Mutation.added(added));
+        assertEquals(reloaded.asList().toString(), journaled(file).load().toString());
+
+        // A base cut short must not make the records above it look stale.
+        String seal = "B | " + crc;
+        Files.writeString(journalOf(file), "U | 2" + nl + seal.substring(0, seal.length() - 2));
+        assertEquals(expected.toString(), journaled(file).load().toString());
+
+        // Nor may a name cut short be added.
+        Files.writeString(journalOf(file), "A | T | 0 | read bo");
+        assertEquals(sampleList(20).asList().toString(), journaled(file).load().toString());
+    }
+
+    @Test
+    public void load_sealedJournal_appliedOnlyToItsSnapshot() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(10);
+        new Storage(file).save(tasks);
+        long crc = crcOf(file);
+
+        // Sealed to this snapshot: applied, then the unsealed tail.
+        Files.write(journalOf(file), List.of("X | 1", "B | " + crc, "U | 1"));
+        List<Task> expected = new ArrayList<>(tasks.asList());
+        expected.remove(0);
+        expected.get(0).unMark();
+        assertEquals(expected.toString(), journaled(file).load().toString());
+
+        // Sealed to another snapshot: skipped, and the journal removed so later appends cannot revive it.
+        Files.write(journalOf(file), List.of("X | 1", "B | " + (crc + 1)));
+        assertEquals(sampleList(10).asList().toString(), journaled(file).load().toString());
+        assertTrue(Files.notExists(journalOf(file)));
+    }
+
+    @Test
+    public void save_crashAroundRename_reloadsTheSavedList() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(10);
+        Storage storage = journaled(file);
+        storage.save(tasks);
+        tasks.markOneBased(2);
+        storage.record(tasks, Mutation.marked(2));
+        tasks.removeOneBased(1);
+        storage.record(tasks, Mutation.deleted(1));
+        String expected = tasks.asList().toString();
+
+        // Crash after the seal, before the rename: the journal still applies to the old snapshot.
+        storage.sealJournals(false);
+        assertEquals(expected, journaled(file).load().toString());
+
+        // Crash after the rename, before the journal is removed: the seal keeps it from replaying.
+        Storage crashed = journaled(file);
+        crashed.load();
+        crashed.sealJournals(false);
+        crashed.replaceSnapshot(tasks.asList(), Storage.Format.TEXT, false);
+        assertTrue(Files.exists(journalOf(file)));
+        assertEquals(expected, journaled(file).load().toString());
+        assertTrue(Files.notExists(journalOf(file)));
+    }
+
+    @Test
+    public void save_writeFailsMidway_oldSnapshotKeptAndTempRemoved() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        new Storage(file).save(sampleList(10));
+        byte[] before = Files.readAllBytes(file);
+
+        List<Task> failing = new AbstractList<>() {
+            @Override
+            public Task get(int i) {
+                if (i == 5) {
+                    throw new UncheckedIOException(new IOException("disk full"));
+                }
+                return new Todo("new " + i);
+            }
+
+            @Override
+            public int size() {
+                return 10;
+            }
+        };
+        assertThrows(UncheckedIOException.class, () -> new Storage(file).save(failing));
+
+        assertArrayEquals(before, Files.readAllBytes(file));
+        assertTrue(Files.notExists(file.resolveSibling(file.getFileName() + ".tmp")));
+    }
+
+    @Test
+    public void save_durable_countsSnapshotBytesAndSyncs() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        Storage storage = new Storage(file);
+        storage.setDurability(Storage.Durability.PER_COMMAND);
+        storage.save(sampleList(100).asList());
+
+        assertEquals(Files.size(file), storage.getStats().getBytesWritten());
+        assertEquals(2, storage.getStats().getFsyncCount(), "the temp file and the directory");
+    }
+
+    @Test
+    public void compaction_overThreshold_foldsJournalInBackground() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        TaskList tasks = sampleList(30);
+        Storage storage = journaled(file);
+        storage.setCompactionThresholds(5, Long.MAX_VALUE);
+        storage.save(tasks);
+
+        for (int i = 1; i <= 5; i++) {
+            Todo t = new Todo("late " + i);
+            tasks.add(t);
+            storage.record(tasks, Mutation.added(t));
+        }
+        storage.awaitCompaction();
+
+        assertTrue(Files.notExists(rotatedOf(file)), "rotated journal is removed once folded");
+        assertTrue(Files.notExists(journalOf(file)), "the fifth record rotated the live journal away");
+        List<Task> snapshot = new ArrayList<>();
+        Storage.readSnapshot(file, snapshot);
+        assertEquals(tasks.asList().toString(), snapshot.toString());
+
+        // Records appended after the rotation stay in the new live journal.
+        tasks.markOneBased(1);
+        storage.record(tasks, Mutation.marked(1));
+        assertEquals(List.of("M | 1"), Files.readAllLines(journalOf(file)));
+        assertEquals(tasks.asList().toString(), journaled(file).load().toString());
+    }
+
+    @Test
+    public void load_leftoverRotatedJournal_appliedUnlessSealedToOtherSnapshot() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        new Storage(file).save(sampleList(10));
+        long crc = crcOf(file);
+        List<Task> marked = new ArrayList<>(sampleList(10).asList());
+        marked.get(0).setMark();
+
+        // Crash before the compactor sealed it: still to be applied.
+        Files.write(rotatedOf(file), List.of("M | 1"));
+        assertEquals(marked.toString(), journaled(file).load().toString());
+
+        // Crash after sealing, before the rename: the base matches, so still applied.
+        Files.write(rotatedOf(file), List.of("M | 1", "B | " + crc));
+        assertEquals(marked.toString(), journaled(file).load().toString());
+        assertTrue(Files.exists(rotatedOf(file)), "kept until a compaction or full save covers it");
+
+        // Crash after the rename: already in the snapshot, so skipped and removed.
+        Files.write(rotatedOf(file), List.of("M | 1", "B | " + (crc + 1)));
+        assertEquals(sampleList(10).asList().toString(), journaled(file).load().toString());
+        assertTrue(Files.notExists(rotatedOf(file)));
+    }
+
+    @Test
+    public void save_pendingRotatedJournal_discardedAfterFullSave() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        new Storage(file).save(sampleList(10));
+        Files.write(rotatedOf(file), List.of("A | T | 0 | from rotated"));
+
+        Storage storage = journaled(file);
+        List<Task> loaded = storage.load();
+        assertEquals("[T][ ] from rotated", loaded.get(10).toString());
+        storage.save(loaded);
+
+        assertTrue(Files.notExists(rotatedOf(file)));
+        assertEquals(loaded.toString(), journaled(file).load().toString());
+        assertFileMatchesFullSave(file, loaded);
+    }
+
+    private static TaskList sampleList(int n) {
+        List<Task> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Task t = i % 2 == 0
+                    ? new Todo("todo " + i)
+                    : new Deadline("deadline é " + i, LocalDateTime.of(2025, 1, 1 + i % 28, 9, 30));
+            if (i % 3 == 1) t.setMark();
+            list.add(t);
+        }
+        return new TaskList(list);
+    }
+
+    private static Storage journaled(Path file) {
+        Storage storage = new Storage(file);
+        storage.setJournaled(true);
+        return storage;
+    }
+
+    private static Path journalOf(Path file) {
+        return file.resolveSibling(file.getFileName() + ".journal");
+    }
+
+    private static Path rotatedOf(Path file) {
+        return file.resolveSibling(file.getFileName() + ".journal.compacting");
+    }
+
+    private static long crcOf(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(file));
+        return crc.getValue();
+    }
+
+    private void assertFileMatchesFullSave(Path file, List<Task> expected) throws IOException {
+        Path reference = dir.resolve("reference.txt");
+        Storage.writeSnapshot(reference, expected, Storage.Format.TEXT);
+        assertArrayEquals(Files.readAllBytes(reference), Files.readAllBytes(file));
+    }
+}
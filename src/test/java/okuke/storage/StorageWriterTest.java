@@ -0,0 +1,154 @@
+package okuke.storage;
+
+import okuke.command.ExitCommand;
+import okuke.task.Task;
+import okuke.task.TaskList;
+import okuke.task.Todo;
+import okuke.ui.Ui;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StorageWriterTest {
+    private static final long LONG_WINDOW_MS = 60_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void record_perBatchWithinWindow_writtenTogetherOnFlush() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        Storage storage = journaledWithList(file, 3);
+        storage.startWriter(LONG_WINDOW_MS, Storage.Durability.PER_BATCH);
+        TaskList tasks = new TaskList(storage.load());
+        long fsyncs = storage.getStats().getFsyncCount();
+
+        addAndRecord(storage, tasks, "a");
+        addAndRecord(storage, tasks, "b");
+        tasks.markOneBased(1);
+        storage.record(tasks, Mutation.marked(1));
+        assertFalse(Files.exists(journalOf(file)), "nothing should be written inside the window");
+
+        storage.flush();
+        assertEquals(3, Files.readAllLines(journalOf(file)).size());
+        assertEquals(fsyncs + 1, storage.getStats().getFsyncCount(), "one fsync for the whole batch");
+        assertEquals(tasks.asList().toString(), journaled(file).load().toString());
+    }
+
+    @Test
+    public void record_noDurability_neverSynced() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        Storage storage = journaledWithList(file, 3);
+        storage.startWriter(LONG_WINDOW_MS, Storage.Durability.NONE);
+        TaskList tasks = new TaskList(storage.load());
+        long fsyncs = storage.getStats().getFsyncCount();
+
+        addAndRecord(storage, tasks, "a");
+        assertFalse(Files.exists(journalOf(file)), "NONE should not wait for the write");
+
+        storage.flush();
+        assertEquals(1, Files.readAllLines(journalOf(file)).size());
+        assertEquals(fsyncs, storage.getStats().getFsyncCount());
+    }
+
+    @Test
+    public void record_perCommand_syncedBeforeReturning() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        Storage storage = journaledWithList(file, 3);
+        storage.startWriter(LONG_WINDOW_MS, Storage.Durability.PER_COMMAND);
+        TaskList tasks = new TaskList(storage.load());
+        long fsyncs = storage.getStats().getFsyncCount();
+
+        addAndRecord(storage, tasks, "a");
+        assertEquals(1, Files.readAllLines(journalOf(file)).size(), "the window is skipped when a command waits");
+        assertEquals(fsyncs + 1, storage.getStats().getFsyncCount());
+
+        addAndRecord(storage, tasks, "b");
+        assertEquals(2, Files.readAllLines(journalOf(file)).size());
+        assertEquals(fsyncs + 2, storage.getStats().getFsyncCount());
+    }
+
+    @Test
+    public void record_perCommandWriteFails_throwsToSubmitterOnly() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        Storage storage = journaledWithList(file, 3);
+        storage.startWriter(LONG_WINDOW_MS, Storage.Durability.PER_COMMAND);
+        TaskList tasks = new TaskList(storage.load());
+        Files.createDirectory(journalOf(file)); // the journal cannot be opened for append
+
+        tasks.add(new Todo("lost"));
+        assertThrows(IOException.class, () -> storage.record(tasks, Mutation.added(tasks.get(3))));
+
+        Files.delete(journalOf(file));
+        addAndRecord(storage, tasks, "kept"); // a later write is not blamed for the earlier one
+        List<String> records = Files.readAllLines(journalOf(file));
+        assertEquals(1, records.size());
+        assertTrue(records.get(0).contains("kept"));
+    }
+
+    @Test
+    public void record_taskChangedAfterSubmit_journalsTheTaskAsAdded() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        Storage storage = journaledWithList(file, 0);
+        storage.startWriter(LONG_WINDOW_MS, Storage.Durability.NONE);
+        TaskList tasks = new TaskList(storage.load());
+
+        addAndRecord(storage, tasks, "a");
+        tasks.get(0).setMark(); // not recorded, so the journal must not see it
+        storage.flush();
+
+        Task loaded = journaled(file).load().get(0);
+        assertEquals(" ", loaded.getStatus(), "the record should hold the task as it was when added");
+    }
+
+    @Test
+    public void exit_pendingSnapshot_flushedBeforeBye() throws Exception {
+        Path file = dir.resolve("OKuke.txt");
+        Storage storage = new Storage(file);
+        storage.startWriter(LONG_WINDOW_MS, Storage.Durability.PER_BATCH);
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("a"));
+        tasks.add(new Todo("b"));
+        storage.save(tasks);
+        assertFalse(Files.exists(file));
+
+        new ExitCommand().execute(tasks, new Ui(), storage);
+        assertEquals(tasks.asList().toString(), new Storage(file).load().toString());
+    }
+
+    private static Storage journaledWithList(Path file, int n) throws IOException {
+        List<Task> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(new Todo("todo " + i));
+        }
+        new Storage(file).save(list);
+        return journaled(file);
+    }
+
+    private static void addAndRecord(Storage storage, TaskList tasks, String description) throws IOException {
+        Task task = new Todo(description);
+        tasks.add(task);
+        storage.record(tasks, Mutation.added(task));
+    }
+
+    private static Storage journaled(Path file) {
+        Storage storage = new Storage(file);
+        storage.setJournaled(true);
+        return storage;
+    }
+
+    private static Path journalOf(Path file) {
+        return file.resolveSibling(file.getFileName() + ".journal");
+    }
+}
@@ -0,0 +1,109 @@
+package okuke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+public class ColumnarTaskListTest {
+
+    @Test
+    public void randomEdits_matchArrayList() {
+        Random rnd = new Random(15);
+        List<Task> expected = new ArrayList<>();
+        List<Task> columns = new ColumnarTaskList();
+
+        for (int op = 0; op < 5_000; op++) {
+            int size = expected.size();
+            switch (rnd.nextInt(5)) {
+                case 0, 1 -> {
+                    Task t = randomTask(rnd, op);
+                    int at = rnd.nextInt(4) == 0 ? rnd.nextInt(size + 1) : size;
+                    expected.add(at, t);
+                    columns.add(at, t);
+                }
+                case 2 -> {
+                    if (size > 0) {
+                        int at = rnd.nextInt(size);
+                        assertEquals(expected.remove(at).toString(), columns.remove(at).toString());
+                    }
+                }
+                case 3 -> {
+                    if (size > 0) {
+                        int at = rnd.nextInt(size);
+                        Task t = columns.get(at);
+                        if (rnd.nextBoolean()) t.setMark(); else t.unMark();
+                        columns.set(at, t);
+                        expected.set(at, t);
+                    }
+                }
+                default -> {
+                    if (size > 0) {
+                        int at = rnd.nextInt(size);
+                        Task t = randomTask(rnd, -op);
+                        expected.set(at, t);
+                        columns.set(at, t);
+                    }
+                }
+            }
+        }
+        assertEquals(expected.size(), columns.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), columns.get(i).toString(), "row " + i);
+        }
+    }
+
+    @Test
+    public void get_buildsFreshTaskWithSameFields() {
+        List<Task> columns = new ColumnarTaskList();
+        LocalDateTime start = LocalDateTime.of(2025, 9, 21, 14, 0);
+        Event e = new Event("project meeting ☕", start, start.plusHours(2));
+        e.setMark();
+        columns.add(e);
+
+        Task read = columns.get(0);
+        assertNotSame(e, read);
+        Event copy = (Event) read;
+        assertEquals(e.getTaskName(), copy.getTaskName());
+        assertEquals(start, copy.getStartDateTime());
+        assertEquals(start.plusHours(2), copy.getEndDateTime());
+        assertEquals("X", copy.getStatus());
+    }
+
+    @Test
+    public void columnarBacking_markAndRemove_matchArrayBacking() {
+        Random rnd = new Random(16);
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            initial.add(randomTask(rnd, i));
+        }
+        TaskList array = new TaskList(initial, TaskList.Backing.ARRAY);
+        TaskList columnar = new TaskList(initial, TaskList.Backing.COLUMNAR);
+        for (int i = 0; i < 500; i++) {
+            int at = 1 + rnd.nextInt(array.size());
+            switch (rnd.nextInt(3)) {
+                case 0 -> assertEquals(array.markOneBased(at).toString(), columnar.markOneBased(at).toString());
+                case 1 -> assertEquals(array.unmarkOneBased(at).toString(), columnar.unmarkOneBased(at).toString());
+                default -> assertEquals(array.removeOneBased(at).toString(), columnar.removeOneBased(at).toString());
+            }
+        }
+        assertEquals(array.find("task 1").toString(), columnar.find("task 1").toString());
+        assertEquals(array.asList().toString(), columnar.asList().toString());
+    }
+
+    private static Task randomTask(Random rnd, int n) {
+        LocalDateTime when = LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(rnd.nextInt(500_000));
+        Task t = switch (rnd.nextInt(3)) {
+            case 0 -> new Todo("task " + n);
+            case 1 -> new Deadline("task " + n, when);
+            default -> new Event("task " + n, when, when.plusHours(rnd.nextInt(48)));
+        };
+        if (rnd.nextInt(3) == 0) t.setMark();
+        return t;
+    }
+}
@@ -0,0 +1,52 @@
+package okuke.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Times sequential against parallel scans over growing lists, to find where
+ * {@link ParallelScan#DEFAULT_THRESHOLD} should sit. Not a unit test; run by hand:
+ * <pre>
+ *   java -cp &lt;main and test classes&gt; okuke.task.ParallelScanBenchmark [max size]
+ * </pre>
+ * Each size is scanned both ways with the same case-insensitive substring filter
+ * that {@link TaskList#find(String)} uses; the best of several runs is reported.
+ */
+public final class ParallelScanBenchmark {
+
+    private ParallelScanBenchmark() { }
+
+    public static void main(String[] args) {
+        int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        List<Task> all = new ArrayList<>(maxSize);
+        for (int i = 0; i < maxSize; i++) {
+            all.add(new Todo("Task number " + i + " for the benchmark"));
+        }
+        Predicate<Task> match = t -> t.getTaskName().toLowerCase().contains("r 12");
+
+        System.out.printf("parallelism %d%n", ForkJoinPool.commonPool().getParallelism());
+        for (int warmup = 0; warmup < 3; warmup++) {
+            time(all, match, Integer.MAX_VALUE);
+            time(all, match, 0);
+        }
+        for (int size = 1_024; size <= maxSize; size *= 2) {
+            List<Task> tasks = all.subList(0, size);
+            long sequential = time(tasks, match, Integer.MAX_VALUE);
+            long parallel = time(tasks, match, 0);
+            System.out.printf("%,10d tasks: sequential %,9d us, parallel %,9d us%s%n", size,
+                    sequential / 1_000, parallel / 1_000, parallel < sequential ? "  <- parallel wins" : "");
+        }
+    }
+
+    private static long time(List<Task> tasks, Predicate<Task> match, int threshold) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 7; run++) {
+            long start = System.nanoTime();
+            ParallelScan.filter(tasks, match, threshold);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
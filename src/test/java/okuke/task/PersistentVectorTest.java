@@ -0,0 +1,104 @@
+package okuke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PersistentVectorTest {
+
+    @Test
+    public void randomEdits_matchArrayList_andLeaveSnapshotsUnchanged() {
+        Random rnd = new Random(18);
+        List<Integer> expected = new ArrayList<>();
+        PersistentVector<Integer> vector = new PersistentVector<>();
+        List<List<Integer>> copies = new ArrayList<>();
+        List<List<Integer>> snapshots = new ArrayList<>();
+
+        for (int op = 0; op < 30_000; op++) {
+            int size = expected.size();
+            switch (rnd.nextInt(6)) {
+                case 0, 1 -> {
+                    int at = rnd.nextBoolean() ? size : rnd.nextInt(size + 1);
+                    expected.add(at, op);
+                    vector.add(at, op);
+                }
+                case 2 -> {
+                    if (size > 0) {
+                        int at = rnd.nextInt(size);
+                        assertEquals(expected.remove(at), vector.remove(at));
+                    }
+                }
+                case 3 -> {
+                    if (size > 0) {
+                        int at = rnd.nextInt(size);
+                        assertEquals(expected.set(at, -op), vector.set(at, -op));
+                    }
+                }
+                default -> {
+                    if (op % 500 == 0) {
+                        copies.add(new ArrayList<>(expected));
+                        snapshots.add(vector.snapshot());
+                    }
+                }
+            }
+            assertEquals(expected.size(), vector.size());
+        }
+        assertEquals(expected, vector);
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(copies.get(i), snapshots.get(i), "snapshot " + i);
+        }
+    }
+
+    @Test
+    public void removeToEmpty_shrinksAndGrowsAgain() {
+        PersistentVector<Integer> vector = new PersistentVector<>();
+        for (int i = 0; i < 5_000; i++) vector.add(i);
+        List<Integer> frozen = vector.snapshot();
+        while (!vector.isEmpty()) vector.remove(0);
+        for (int i = 0; i < 40; i++) vector.add(i);
+        assertEquals(40, vector.size());
+        assertEquals(39, vector.get(39));
+        assertEquals(5_000, frozen.size());
+        assertEquals(4_999, frozen.get(4_999));
+    }
+
+    @Test
+    public void subListClear_matchesArrayList_andLeavesSnapshotUnchanged() {
+        Random rnd = new Random(19);
+        List<Integer> expected = new ArrayList<>();
+        PersistentVector<Integer> vector = new PersistentVector<>();
+        for (int i = 0; i < 3_000; i++) {
+            expected.add(i);
+            vector.add(i);
+        }
+        List<Integer> frozen = vector.snapshot();
+        while (expected.size() > 100) {
+            int from = rnd.nextInt(expected.size());
+            int to = Math.min(expected.size(), from + rnd.nextInt(80));
+            expected.subList(from, to).clear();
+            vector.subList(from, to).clear();
+            assertEquals(expected, vector);
+        }
+        vector.subList(0, vector.size()).clear();
+        assertEquals(0, vector.size());
+        assertEquals(3_000, frozen.size());
+        assertEquals(2_999, frozen.get(2_999));
+    }
+
+    @Test
+    public void snapshot_isReadOnly() {
+        PersistentVector<String> vector = new PersistentVector<>();
+        vector.add("a");
+        List<String> frozen = vector.snapshot();
+        assertThrows(UnsupportedOperationException.class, () -> frozen.add("b"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.set(0, "b"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.remove(0));
+        assertThrows(UnsupportedOperationException.class, frozen::clear);
+        assertEquals(List.of("a"), frozen);
+    }
+}
@@ -0,0 +1,56 @@
+package okuke.task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times positional deletes on each {@link TaskList.Backing}. Not a unit test; run by hand:
+ * <pre>
+ *   java -cp &lt;main and test classes&gt; okuke.task.TaskListBenchmark [size] [deletes]
+ * </pre>
+ * Deletes are taken from near the front, the worst case for an array.
+ */
+public final class TaskListBenchmark {
+
+    private TaskListBenchmark() { }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int deletes = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        List<Task> initial = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            initial.add(new Todo("task " + i));
+        }
+        for (int warmup = 0; warmup < 2; warmup++) {
+            for (TaskList.Backing backing : TaskList.Backing.values()) {
+                run(backing, initial, Math.min(deletes, 10_000), false);
+            }
+        }
+        for (TaskList.Backing backing : TaskList.Backing.values()) {
+            run(backing, initial, deletes, true);
+        }
+    }
+
+    private static void run(TaskList.Backing backing, List<Task> initial, int deletes, boolean report) {
+        TaskList tasks = new TaskList(initial, backing);
+        long start = System.nanoTime();
+        for (int i = 0; i < deletes; i++) {
+            tasks.removeOneBased(1 + i % 16);
+        }
+        long deleteNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < tasks.size(); i += 7) {
+            checksum += tasks.get(i).getTaskName().length();
+        }
+        long getNanos = System.nanoTime() - start;
+
+        if (report) {
+            System.out.printf("%-5s %,d tasks: %,d deletes %,d ms, %,d gets %,d ms (checksum %d)%n",
+                    backing, initial.size(), deletes, deleteNanos / 1_000_000,
+                    tasks.size() / 7, getNanos / 1_000_000, checksum);
+        }
+    }
+}
@@ -5,7 +5,10 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -109,4 +112,409 @@ public class TaskListTest {
         assertFalse(tasks.occurringOn(LocalDate.of(2025, 9, 9)).contains(ev));
         assertFalse(tasks.occurringOn(LocalDate.of(2025, 9, 13)).contains(ev));
     }
+
+    @Test
+    public void find_indexedSearch_matchesLinearScan() {
+        Random rnd = new Random(11);
+        String[] words = {"Read", "book", "BOOKING", "meet", "Äpfel", "kaufen", "review", "pr", "x", "re"};
+        for (int i = 0; i < 2_000; i++) {
+            tasks.add(new Todo(words[rnd.nextInt(words.length)] + " " + words[rnd.nextInt(words.length)] + i));
+        }
+        String[] needles = {"boo", "BOOK", "king", "re", "view", "äpf", "k ", "k bo", "", "zzz", "12", "1999", "pr r"};
+        for (int round = 0; round < 3; round++) {
+            for (String needle : needles) {
+                assertEquals(linearFind(needle), tasks.find(needle), needle);
+            }
+            for (int i = 0; i < 300; i++) {
+                tasks.removeOneBased(1 + rnd.nextInt(tasks.size()));
+            }
+            tasks.add(new Todo("booking review"));
+        }
+    }
+
+    @Test
+    public void occurringOn_indexed_matchesLinearScan() {
+        Random rnd = new Random(12);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 1_000; i++) {
+                LocalDateTime start = base.plusHours(rnd.nextInt(24 * 60));
+                switch (rnd.nextInt(3)) {
+                    case 0 -> tasks.add(new Todo("todo " + i));
+                    case 1 -> tasks.add(new Deadline("deadline " + i, start));
+                    default -> tasks.add(new Event("event " + i, start, start.plusHours(rnd.nextInt(24 * 5))));
+                }
+            }
+            for (int d = 0; d < 70; d++) {
+                LocalDate date = base.toLocalDate().plusDays(d);
+                assertEquals(linearOccurringOn(date), tasks.occurringOn(date), date.toString());
+            }
+            for (int i = 0; i < 400; i++) {
+                tasks.removeOneBased(1 + rnd.nextInt(tasks.size()));
+            }
+        }
+    }
+
+    @Test
+    public void between_indexed_matchesLinearScan() {
+        Random rnd = new Random(13);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < 2_000; i++) {
+            LocalDateTime start = base.plusHours(rnd.nextInt(24 * 60));
+            switch (rnd.nextInt(3)) {
+                case 0 -> tasks.add(new Todo("todo " + i));
+                case 1 -> tasks.add(new Deadline("deadline " + i, start));
+                default -> tasks.add(new Event("event " + i, start, start.plusHours(rnd.nextInt(24 * 5))));
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            LocalDate from = base.toLocalDate().plusDays(rnd.nextInt(70) - 5);
+            LocalDate to = from.plusDays(rnd.nextInt(10));
+            List<Task> expected = new ArrayList<>();
+            for (Task t : tasks.asList()) {
+                if (t instanceof Deadline d) {
+                    LocalDate by = d.getByDateTime().toLocalDate();
+                    if (!by.isBefore(from) && !by.isAfter(to)) expected.add(t);
+                } else if (t instanceof Event e) {
+                    if (!e.getEndDateTime().toLocalDate().isBefore(from)
+                            && !e.getStartDateTime().toLocalDate().isAfter(to)) expected.add(t);
+                }
+            }
+            assertEquals(expected, tasks.between(from, to), from + ".." + to);
+        }
+        assertTrue(tasks.between(base.toLocalDate().plusDays(3), base.toLocalDate()).isEmpty());
+    }
+
+    @Test
+    public void overdueAndUpcoming_skipDoneTasks_inTimeOrder() {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+        tasks.add(new Deadline("late", now.minusDays(1)));
+        tasks.add(new Deadline("later", now.minusDays(3)));
+        tasks.add(new Deadline("done late", now.minusDays(2)));
+        tasks.add(new Todo("no date"));
+        tasks.add(new Event("running", now.minusHours(1), now.plusHours(1)));
+        tasks.add(new Event("soon", now.plusHours(2), now.plusHours(3)));
+        tasks.add(new Deadline("due now", now));
+        tasks.add(new Deadline("next week", now.plusDays(7)));
+        tasks.add(new Deadline("done soon", now.plusHours(1)));
+        tasks.markOneBased(3);
+        tasks.markOneBased(9);
+
+        assertEquals(List.of("later", "late"), names(tasks.overdue(now)));
+        assertEquals(List.of("due now", "soon", "next week"), names(tasks.upcoming(now, 10)));
+        assertEquals(List.of("due now", "soon"), names(tasks.upcoming(now, 2)));
+        assertTrue(tasks.upcoming(now, 0).isEmpty());
+
+        tasks.removeOneBased(7); // "due now"
+        assertEquals(List.of("soon"), names(tasks.upcoming(now, 1)));
+    }
+
+    @Test
+    public void overdue_markedAfterIndexBuilt_followsStatus() {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+        tasks.add(new Deadline("a", now.minusDays(3)));
+        tasks.add(new Deadline("b", now.minusDays(2)));
+        tasks.add(new Deadline("c", now.minusDays(2)));
+        tasks.add(new Deadline("d", now.minusDays(1)));
+        assertEquals(List.of("a", "b", "c", "d"), names(tasks.overdue(now)));
+
+        tasks.markOneBased(2);
+        BitSet ends = new BitSet();
+        ends.set(0);
+        ends.set(3);
+        tasks.markAll(ends);
+        assertEquals(List.of("c"), names(tasks.overdue(now)));
+
+        tasks.unmarkOneBased(2); // back in front of "c", due at the same time
+        tasks.unmarkAll(ends);
+        tasks.markOneBased(3);
+        assertEquals(List.of("a", "b", "d"), names(tasks.overdue(now)));
+    }
+
+    @Test
+    public void positionsMatching_bitmaps_matchLinearScan() {
+        Random rnd = new Random(16);
+        LocalDateTime when = LocalDateTime.of(2025, 1, 1, 9, 0);
+        Boolean[] statuses = {null, true, false};
+        String[] typeFilters = {null, "T", "D", "E", "DE", "TDE", ""};
+        for (int op = 0; op < 3_000; op++) {
+            switch (rnd.nextInt(4)) {
+                case 0 -> tasks.add(switch (rnd.nextInt(3)) {
+                    case 0 -> new Todo("todo " + op);
+                    case 1 -> new Deadline("deadline " + op, when);
+                    default -> new Event("event " + op, when, when.plusHours(1));
+                });
+                case 1 -> { if (tasks.size() > 0) tasks.markOneBased(1 + rnd.nextInt(tasks.size())); }
+                case 2 -> { if (tasks.size() > 0) tasks.unmarkOneBased(1 + rnd.nextInt(tasks.size())); }
+                default -> { if (tasks.size() > 0 && rnd.nextInt(3) == 0) tasks.removeOneBased(1 + rnd.nextInt(tasks.size())); }
+            }
+            if (op % 100 == 0) {
+                for (Boolean done : statuses) {
+                    for (String types : typeFilters) {
+                        BitSet expected = new BitSet();
+                        for (int i = 0; i < tasks.size(); i++) {
+                            Task t = tasks.get(i);
+                            String letter = t instanceof Deadline ? "D" : t instanceof Event ? "E" : "T";
+                            boolean statusOk = done == null || done == "X".equals(t.getStatus());
+                            if (statusOk && (types == null || types.contains(letter))) expected.set(i);
+                        }
+                        assertEquals(expected, tasks.positionsMatching(done, types), done + " " + types);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void removeAll_everyBacking_matchesRemovingOneByOne() {
+        Random rnd = new Random(17);
+        LocalDateTime when = LocalDateTime.of(2025, 3, 1, 9, 0);
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            Task t = i % 3 == 0 ? new Todo("todo " + i)
+                    : i % 3 == 1 ? new Deadline("deadline " + i, when.plusHours(i))
+                    : new Event("event " + i, when.plusHours(i), when.plusHours(i + 30));
+            if (rnd.nextBoolean()) t.setMark();
+            initial.add(t);
+        }
+        BitSet positions = new BitSet();
+        for (int i = 0; i < 400; i++) {
+            int from = rnd.nextInt(initial.size());
+            positions.set(from, Math.min(initial.size(), from + rnd.nextInt(4)));
+        }
+
+        TaskList expected = new TaskList(initial);
+        for (int i = positions.length() - 1; i >= 0; i = positions.previousSetBit(i - 1)) {
+            expected.removeOneBased(i + 1);
+        }
+        LocalDate day = when.toLocalDate().plusDays(40);
+        for (TaskList.Backing backing : TaskList.Backing.values()) {
+            TaskList actual = new TaskList(initial, backing);
+            actual.find("event 1"); // build the indexes so that they must follow the removal
+            actual.occurringOn(day);
+            actual.positionsMatching(false, null);
+
+            List<Task> removed = actual.removeAll(positions);
+            assertEquals(positions.cardinality(), removed.size(), backing.name());
+            assertEquals(expected.asList().toString(), actual.asList().toString(), backing.name());
+            assertEquals(expected.find("event 1").toString(), actual.find("event 1").toString(), backing.name());
+            assertEquals(expected.occurringOn(day).toString(), actual.occurringOn(day).toString(), backing.name());
+            assertEquals(expected.positionsMatching(false, null), actual.positionsMatching(false, null), backing.name());
+        }
+    }
+
+    @Test
+    public void markAll_outOfRange_changesNothing() {
+        tasks.add(new Todo("a"));
+        tasks.add(new Todo("b"));
+        BitSet positions = new BitSet();
+        positions.set(0, 3);
+        assertThrows(IndexOutOfBoundsException.class, () -> tasks.markAll(positions));
+        assertEquals(" ", tasks.get(0).getStatus());
+
+        positions.clear(2);
+        tasks.markAll(positions);
+        assertEquals(new BitSet(), tasks.positionsMatching(false, null));
+    }
+
+    @Test
+    public void snapshot_everyBacking_unchangedByLaterEdits() {
+        LocalDateTime when = LocalDateTime.of(2025, 3, 1, 9, 0);
+        for (TaskList.Backing backing : TaskList.Backing.values()) {
+            TaskList list = new TaskList(backing);
+            for (int i = 0; i < 100; i++) {
+                list.add(i % 2 == 0 ? new Todo("todo " + i) : new Deadline("deadline " + i, when.plusDays(i)));
+            }
+            String before = list.asList().toString();
+            List<Task> snapshot = list.snapshot();
+
+            list.markOneBased(1);
+            BitSet range = new BitSet();
+            range.set(10, 20);
+            list.markAll(range);
+            list.removeOneBased(50);
+            list.add(new Todo("late"));
+
+            assertEquals(before, snapshot.toString(), backing.name());
+            assertEquals("X", list.get(0).getStatus(), backing.name());
+            assertEquals(100, list.size(), backing.name());
+            assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(0), backing.name());
+        }
+    }
+
+    @Test
+    public void undoRedo_everyBacking_walksVersions() {
+        for (TaskList.Backing backing : TaskList.Backing.values()) {
+            TaskList list = new TaskList(backing);
+            list.add(new Todo("a"));
+            list.enableUndo(1L << 20);
+            String v0 = list.asList().toString();
+            list.add(new Todo("b"));
+            list.checkpoint();
+            String v1 = list.asList().toString();
+            list.markOneBased(1);
+            list.removeOneBased(2);
+            list.checkpoint();
+            String v2 = list.asList().toString();
+            list.checkpoint(); // nothing changed, so no new version
+
+            assertTrue(list.undo(), backing.name());
+            assertEquals(v1, list.asList().toString(), backing.name());
+            assertTrue(list.undo(), backing.name());
+            assertEquals(v0, list.asList().toString(), backing.name());
+            assertFalse(list.undo(), backing.name());
+            assertEquals(1, list.find("a").size(), backing.name()); // indexes follow the restore
+
+            assertTrue(list.redo(), backing.name());
+            assertTrue(list.redo(), backing.name());
+            assertEquals(v2, list.asList().toString(), backing.name());
+            assertFalse(list.redo(), backing.name());
+
+            list.undo();
+            list.add(new Todo("c"));
+            list.checkpoint();
+            assertFalse(list.redo(), backing.name()); // a new change drops the redo versions
+            assertTrue(list.undo(), backing.name());
+            assertEquals(v1, list.asList().toString(), backing.name());
+        }
+    }
+
+    @Test
+    public void undo_uncheckpointedChange_isUndoneFirst() {
+        tasks.enableUndo(1L << 20);
+        tasks.add(new Todo("a"));
+        assertTrue(tasks.undo());
+        assertEquals(0, tasks.size());
+        assertTrue(tasks.redo());
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void undo_persistentHistory_boundedByBudgetNotCount() {
+        TaskList list = new TaskList(TaskList.Backing.PERSISTENT);
+        for (int i = 0; i < 100_000; i++) list.add(new Todo("task " + i));
+        list.enableUndo(64 << 10);
+        for (int i = 1; i <= 1_000; i++) {
+            list.markOneBased(i);
+            list.checkpoint();
+        }
+        int undone = 0;
+        while (list.undo()) undone++;
+        // Each version only pins the few nodes on one path, so many fit, but not all.
+        assertTrue(undone > 50 && undone < 1_000, "undone " + undone);
+        assertEquals(1_000 - undone, list.positionsMatching(true, null).cardinality());
+    }
+
+    @Test
+    public void undo_copiedColumnarVersions_chargedForTheirTasks() {
+        int[] kept = new int[2];
+        TaskList.Backing[] backings = {TaskList.Backing.ARRAY, TaskList.Backing.COLUMNAR};
+        for (int b = 0; b < backings.length; b++) {
+            TaskList list = new TaskList(backings[b]);
+            for (int i = 0; i < 1_000; i++) list.add(new Todo("task " + i));
+            list.enableUndo(200_000);
+            for (int i = 0; i < 10; i++) {
+                list.add(new Todo("more " + i));
+                list.checkpoint();
+            }
+            while (list.undo()) kept[b]++;
+        }
+        // An array copy shares its tasks; a columnar copy decodes a task per record.
+        assertEquals(10, kept[0]);
+        assertEquals(2, kept[1]);
+    }
+
+    @Test
+    public void parallelScan_everyBacking_matchesSequentialInOrder() {
+        LocalDateTime when = LocalDateTime.of(2025, 3, 1, 9, 0);
+        List<Task> initial = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            initial.add(i % 3 == 0 ? new Todo("todo " + i)
+                    : i % 3 == 1 ? new Deadline("deadline " + i, when.plusHours(i % 500))
+                    : new Event("event " + i, when.plusHours(i % 700), when.plusHours(i % 700 + 50)));
+        }
+        TaskList sequential = new TaskList(initial);
+        sequential.setParallelThreshold(Integer.MAX_VALUE);
+        LocalDate day = when.toLocalDate().plusDays(9);
+
+        for (TaskList.Backing backing : TaskList.Backing.values()) {
+            TaskList parallel = new TaskList(initial, backing);
+            parallel.setParallelThreshold(0);
+            for (int round = 0; round < 2; round++) { // scanned first, then from the new indexes
+                assertEquals(sequential.find("nt 1").toString(), parallel.find("nt 1").toString(), backing.name());
+                assertEquals(sequential.find("7").toString(), parallel.find("7").toString(), backing.name());
+                assertEquals(sequential.occurringOn(day).toString(), parallel.occurringOn(day).toString(), backing.name());
+                assertEquals(sequential.between(day, day.plusDays(3)).toString(),
+                        parallel.between(day, day.plusDays(3)).toString(), backing.name());
+            }
+        }
+    }
+
+    @Test
+    public void search_typos_rankedBestFirst() {
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", LocalDateTime.of(2025, 6, 6, 18, 0)));
+        tasks.add(new Todo("return library card"));
+        tasks.add(new Todo("buy groceries"));
+
+        assertEquals(List.of("return book", "read book", "return library card"),
+                names(tasks.search("retrn bookk", 10)));
+        assertEquals(List.of("return book"), names(tasks.search("RETURN, book!", 1)));
+        assertEquals(List.of("buy groceries"), names(tasks.search("grocerys", 10)));
+        assertEquals(List.of("read book"), names(tasks.search("raed", 10))); // a swap is one edit
+        assertTrue(tasks.search("bok", 10).isEmpty()); // short words must match exactly
+        assertTrue(tasks.search("", 10).isEmpty());
+    }
+
+    @Test
+    public void search_incrementalUpdates_matchFreshIndex() {
+        Random rnd = new Random(21);
+        String[] vocabulary = {"report", "meeting", "project", "review", "budget", "invoice", "client", "draft"};
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 300; i++) {
+                tasks.add(new Todo(vocabulary[rnd.nextInt(vocabulary.length)] + " "
+                        + vocabulary[rnd.nextInt(vocabulary.length)] + " " + i));
+            }
+            tasks.search("report", 1); // the index now follows every change below
+            for (int i = 0; i < 100; i++) {
+                tasks.removeOneBased(1 + rnd.nextInt(tasks.size()));
+            }
+            BitSet range = new BitSet();
+            range.set(0, 20);
+            tasks.removeAll(range);
+
+            TaskList fresh = new TaskList(tasks.asList());
+            for (String query : new String[] {"reprot", "meting budgte", "clients draft", "invoice"}) {
+                assertEquals(fresh.search(query, 25).toString(), tasks.search(query, 25).toString(), query);
+            }
+        }
+    }
+
+    private static List<String> names(List<Task> list) {
+        List<String> out = new ArrayList<>();
+        for (Task t : list) out.add(t.getTaskName());
+        return out;
+    }
+
+    private List<Task> linearOccurringOn(LocalDate date) {
+        List<Task> out = new ArrayList<>();
+        for (Task t : tasks.asList()) {
+            if (t instanceof Deadline d) {
+                if (d.getByDateTime().toLocalDate().equals(date)) out.add(t);
+            } else if (t instanceof Event e) {
+                LocalDate start = e.getStartDateTime().toLocalDate();
+                LocalDate end = e.getEndDateTime().toLocalDate();
+                if (!date.isBefore(start) && !date.isAfter(end)) out.add(t);
+            }
+        }
+        return out;
+    }
+
+    private List<Task> linearFind(String keyword) {
+        List<Task> out = new ArrayList<>();
+        for (Task t : tasks.asList()) {
+            if (t.getTaskName().toLowerCase().contains(keyword.toLowerCase())) out.add(t);
+        }
+        return out;
+    }
 }
@@ -1,7 +1,12 @@
 package okuke.task;
 
+import okuke.util.DateTimeUtil;
 import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class TodoTest {
     @Test
@@ -13,4 +18,28 @@ public class TodoTest {
     public void anotherDummyTest(){
         assertEquals(4, 4);
     }
+
+    @Test
+    public void toString_markAndUnmark_rerenderedOtherwiseCached() {
+        LocalDateTime start = LocalDateTime.of(2025, 8, 6, 14, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 8, 7, 0, 0);
+        Task todo = new Todo("read book");
+        Task deadline = new Deadline("return book", start);
+        Task event = new Event("camp", start, end);
+
+        assertEquals("[T][ ] read book", todo.toString());
+        assertSame(todo.toString(), todo.toString());
+        todo.setMark();
+        assertEquals("[T][X] read book", todo.toString());
+        todo.unMark();
+        assertEquals("[T][ ] read book", todo.toString());
+
+        deadline.setMark();
+        assertEquals("[D][X] return book (by: " + DateTimeUtil.formatNice(start) + ")", deadline.toString());
+        assertSame(deadline.toString(), deadline.toString());
+        event.setMark();
+        event.unMark();
+        assertEquals("[E][ ] camp (from: " + DateTimeUtil.formatNice(start)
+                + " to: " + DateTimeUtil.formatNice(end) + ")", event.toString());
+    }
 }
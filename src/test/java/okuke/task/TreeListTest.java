@@ -0,0 +1,93 @@
+package okuke.task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TreeListTest {
+
+    @Test
+    public void randomEdits_matchArrayList() {
+        Random rnd = new Random(14);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) expected.add(i);
+        List<Integer> tree = new TreeList<>(expected);
+
+        for (int op = 0; op < 20_000; op++) {
+            int size = expected.size();
+            switch (rnd.nextInt(4)) {
+                case 0 -> {
+                    int at = rnd.nextInt(size + 1);
+                    expected.add(at, op);
+                    tree.add(at, op);
+                }
+                case 1 -> {
+                    if (size > 0) {
+                        int at = rnd.nextInt(size);
+                        assertEquals(expected.remove(at), tree.remove(at));
+                    }
+                }
+                case 2 -> {
+                    if (size > 0) {
+                        int at = rnd.nextInt(size);
+                        assertEquals(expected.set(at, -op), tree.set(at, -op));
+                    }
+                }
+                default -> {
+                    if (size > 0) {
+                        int at = rnd.nextInt(size);
+                        assertEquals(expected.get(at), tree.get(at));
+                    }
+                }
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        assertEquals(expected, tree);
+    }
+
+    @Test
+    public void iteratorRemove_removesReturnedElement() {
+        List<Integer> tree = new TreeList<>();
+        for (int i = 0; i < 100; i++) tree.add(i);
+        for (Iterator<Integer> it = tree.iterator(); it.hasNext(); ) {
+            if (it.next() % 3 != 0) it.remove();
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i += 3) expected.add(i);
+        assertEquals(expected, tree);
+    }
+
+    @Test
+    public void get_outOfRange_throws() {
+        List<Integer> tree = new TreeList<>(List.of(1, 2, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.remove(-1));
+    }
+
+    @Test
+    public void treeBacking_indexedQueriesMatchArrayBacking() {
+        Random rnd = new Random(15);
+        TaskList array = new TaskList(TaskList.Backing.ARRAY);
+        TaskList tree = new TaskList(TaskList.Backing.TREE);
+        for (int i = 0; i < 3_000; i++) {
+            Task t = new Todo("task " + rnd.nextInt(500));
+            array.add(t);
+            tree.add(t);
+        }
+        for (int round = 0; round < 5; round++) {
+            String needle = "task " + rnd.nextInt(50);
+            assertEquals(array.find(needle), tree.find(needle));
+            for (int i = 0; i < 300; i++) {
+                int at = 1 + rnd.nextInt(array.size());
+                assertEquals(array.removeOneBased(at), tree.removeOneBased(at));
+            }
+        }
+        assertEquals(array.asList(), tree.asList());
+    }
+}
@@ -0,0 +1,76 @@
+package okuke.ui;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+/**
+ * Times {@link LineReader} against {@link Scanner#nextLine()} on a piped command
+ * script, as used for batch imports. Not a unit test; run by hand:
+ * <pre>
+ *   java -cp &lt;main and test classes&gt; okuke.ui.LineReaderBenchmark [commands]
+ * </pre>
+ * Both read the script from memory, so only line splitting and decoding are timed;
+ * the best of several runs is reported.
+ */
+public final class LineReaderBenchmark {
+
+    private LineReaderBenchmark() { }
+
+    public static void main(String[] args) throws IOException {
+        int commands = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < commands; i++) {
+            script.append(switch (i % 4) {
+                case 0 -> "todo borrow book number " + i;
+                case 1 -> "deadline return book " + i + " /by 2025-08-06 1400";
+                case 2 -> "mark " + (i / 4 + 1);
+                default -> "event project meeting /from 6/8/2025 1400 /to 6/8/2025 1600";
+            }).append('\n');
+        }
+        byte[] bytes = script.toString().getBytes(StandardCharsets.UTF_8);
+
+        for (int round = 0; round < 3; round++) {
+            long reader = Long.MAX_VALUE;
+            long scanner = Long.MAX_VALUE;
+            for (int run = 0; run < 5; run++) {
+                reader = Math.min(reader, timeLineReader(bytes, commands));
+                scanner = Math.min(scanner, timeScanner(bytes, commands));
+            }
+            System.out.printf("%,d commands: LineReader %,d ms (%,.0f lines/s), Scanner %,d ms (%,.0f lines/s)%n",
+                    commands, reader / 1_000_000, commands * 1e9 / reader,
+                    scanner / 1_000_000, commands * 1e9 / scanner);
+        }
+    }
+
+    private static long timeLineReader(byte[] bytes, int expected) throws IOException {
+        long start = System.nanoTime();
+        LineReader reader = new LineReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        int lines = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lines += line.trim().isEmpty() ? 0 : 1;
+        }
+        long elapsed = System.nanoTime() - start;
+        check(lines, expected);
+        return elapsed;
+    }
+
+    private static long timeScanner(byte[] bytes, int expected) {
+        long start = System.nanoTime();
+        Scanner scanner = new Scanner(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        int lines = 0;
+        while (scanner.hasNextLine()) {
+            lines += scanner.nextLine().trim().isEmpty() ? 0 : 1;
+        }
+        long elapsed = System.nanoTime() - start;
+        check(lines, expected);
+        return elapsed;
+    }
+
+    private static void check(int lines, int expected) {
+        if (lines != expected) {
+            throw new IllegalStateException("read " + lines + " lines, expected " + expected);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package okuke.ui;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LineReaderTest {
+
+    private static List<String> readAll(InputStream in) throws IOException {
+        LineReader reader = new LineReader(in, StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>();
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lines.add(line);
+        }
+        assertNull(reader.readLine(), "stays at end of input");
+        return lines;
+    }
+
+    private static InputStream bytes(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Hands out at most one byte per read, so every line straddles a refill. */
+    private static InputStream trickle(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    @Test
+    public void readLine_everyTerminator_splitsLikeScanner() throws IOException {
+        String text = "todo a\nlist\r\n\r\nmark 1\rdeadline café /by 6/8/2025\nbye";
+        List<String> expected = List.of("todo a", "list", "", "mark 1", "deadline café /by 6/8/2025", "bye");
+        assertEquals(expected, readAll(bytes(text)));
+        assertEquals(expected, readAll(trickle(text)));
+        assertEquals(List.of("a", ""), readAll(trickle("a\r\r\n")));
+    }
+
+    @Test
+    public void readLine_emptyOrTerminatedInput_noExtraLine() throws IOException {
+        assertEquals(List.of(), readAll(bytes("")));
+        assertEquals(List.of("bye"), readAll(bytes("bye\n")));
+        assertEquals(List.of(""), readAll(bytes("\n")));
+    }
+
+    @Test
+    public void readLine_longerThanBuffer_growsIntact() throws IOException {
+        String longLine = "todo " + "x".repeat(200_000) + "é";
+        assertEquals(List.of("list", longLine, "bye"), readAll(bytes("list\n" + longLine + "\nbye\n")));
+    }
+}
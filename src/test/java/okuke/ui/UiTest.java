@@ -0,0 +1,66 @@
+package okuke.ui;
+
+import okuke.task.TaskList;
+import okuke.task.Todo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UiTest {
+    private static final String LINE = "____________________________________________________________";
+    private static final String NL = System.lineSeparator();
+
+    private final PrintStream originalOut = System.out;
+    private final InputStream originalIn = System.in;
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(originalOut);
+        System.setIn(originalIn);
+    }
+
+    @Test
+    public void showList_buffered_writtenBeforeNextReadUnchanged() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true));
+        System.setIn(new ByteArrayInputStream("list\n".getBytes(StandardCharsets.UTF_8)));
+        Ui ui = new Ui();
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Todo("return book"));
+
+        ui.showList(tasks);
+        assertEquals(0, bytes.size(), "nothing is written until a read or flush");
+
+        assertEquals("list", ui.readCommand());
+        assertEquals(LINE + NL
+                + "Here are the tasks in your list:" + NL
+                + "1.[T][ ] read book" + NL
+                + "2.[T][ ] return book" + NL
+                + LINE + NL, bytes.toString());
+
+        ui.showBye();
+        ui.flush();
+        assertTrue(bytes.toString().endsWith(LINE + NL + "Bye. Hope to see you again soon!" + NL));
+    }
+
+    @Test
+    public void readCommand_pipedInputUsedUp_returnsNull() {
+        System.setIn(new ByteArrayInputStream("  todo a  \r\nbye".getBytes(StandardCharsets.UTF_8)));
+        Ui ui = new Ui();
+
+        assertEquals("todo a", ui.readCommand());
+        assertEquals("bye", ui.readCommand());
+        assertNull(ui.readCommand());
+        assertNull(ui.readCommand());
+    }
+}
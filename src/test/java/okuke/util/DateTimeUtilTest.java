@@ -0,0 +1,45 @@
+package okuke.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DateTimeUtilTest {
+
+    private static void assertParses(String expected, String input) {
+        assertEquals(LocalDateTime.parse(expected), DateTimeUtil.parseFlexibleDateTime(input), input);
+    }
+
+    @Test
+    public void parseFlexibleDateTime_everyLayout_parses() {
+        assertParses("2025-08-06T00:00", "2025-08-06");
+        assertParses("2025-08-06T18:00", "2025-08-06 1800");
+        assertParses("2025-08-06T18:00", "2025-08-06T18:00");
+        assertParses("2025-08-06T18:00:30.500", "2025-08-06t18:00:30.5");
+        assertParses("2025-08-06T00:00", "6/8/2025");
+        assertParses("2025-08-06T09:30", "06-08-2025 0930");
+        assertParses("2025-08-06T09:30", " 6.8.2025 \t 0930 ");
+        assertParses("+12025-08-06T00:00", "+12025-08-06");
+    }
+
+    @Test
+    public void parseFlexibleDateTime_smartLayouts_clampDayAndRollMidnight() {
+        assertParses("2025-02-28T00:00", "31/2/2025");
+        assertParses("2025-02-28T12:00", "2025-02-30 1200");
+        assertParses("2025-08-07T00:00", "6/8/2025 2400");
+    }
+
+    @Test
+    public void parseFlexibleDateTime_invalid_throws() {
+        String[] bad = {"", "tomorrow", "2025-02-29", "2025-08-06T24:00", "2025-8-06", "6/8/25",
+                "6/8/12025", "32/1/2025", "6/13/2025", "6/8/2025 2401", "6/8/2025 930", "6/8/2025 12 00",
+                "0000-08-06 1200", "+6/8/2025", "2025-08-06T18:00:60"};
+        for (String s : bad) {
+            assertThrows(DateTimeParseException.class, () -> DateTimeUtil.parseFlexibleDateTime(s), s);
+        }
+    }
+}